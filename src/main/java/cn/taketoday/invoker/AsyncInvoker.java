@@ -0,0 +1,47 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Invoke a method asynchronously
+ *
+ * @author TODAY <br>
+ *         2020-08-21 21:40
+ */
+@FunctionalInterface
+public interface AsyncInvoker {
+
+  /**
+   * Invoke target method on an executor.
+   * <p>
+   * If target method returns a {@link java.util.concurrent.CompletionStage} the
+   * returned future completes with that stage's result
+   *
+   * @param obj
+   *            target object, {@code null} for a static method
+   * @param args
+   *            method arguments
+   * @return a future completed with target method's result or exception
+   */
+  CompletableFuture<Object> invokeAsync(Object obj, Object[] args);
+
+}
@@ -0,0 +1,216 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link MethodInvoker} that can also run its target method on an
+ * {@link Executor}.
+ * <p>
+ * Each asynchronous call allocates a single {@link CompletableFuture} that is
+ * the submitted task itself. The task's {@code run()} is generated per target
+ * method, so that the call site invoking the target method stays monomorphic.
+ *
+ * @author TODAY <br>
+ *         2020-08-21 21:45
+ */
+public abstract class AsyncMethodInvoker extends MethodInvoker implements AsyncInvoker {
+
+  private final Executor executor;
+  /** creates the generated tasks, never run itself */
+  private final InvocationTask prototype;
+
+  protected AsyncMethodInvoker(Executor executor, InvocationTask prototype) {
+    this.executor = executor;
+    this.prototype = prototype;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The returned future is completed exceptionally if the executor rejects
+   * the task
+   */
+  @Override
+  public final CompletableFuture<Object> invokeAsync(Object obj, Object[] args) {
+    final InvocationTask task = prototype.newTask(obj, args);
+    try {
+      executor.execute(task);
+    }
+    catch (RejectedExecutionException e) {
+      task.completeExceptionally(e);
+    }
+    return task;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Create a {@link AsyncMethodInvoker} running on the default executor
+   *
+   * @param method
+   *            Target method to invoke
+   * @return {@link AsyncMethodInvoker} sub object
+   * @see #getDefaultExecutor()
+   */
+  public static AsyncMethodInvoker create(Method method) {
+    return new AsyncMethodInvokerGenerator(method).create();
+  }
+
+  /**
+   * Create a {@link AsyncMethodInvoker}
+   *
+   * @param method
+   *            Target method to invoke
+   * @param executor
+   *            Executor to run target method
+   * @return {@link AsyncMethodInvoker} sub object
+   */
+  public static AsyncMethodInvoker create(Method method, Executor executor) {
+    return new AsyncMethodInvokerGenerator(method, executor).create();
+  }
+
+  /**
+   * Create a {@link AsyncMethodInvoker} running on the default executor
+   *
+   * @param beanClass
+   *            Bean Class
+   * @param name
+   *            Target method to invoke
+   * @param parameterClasses
+   *            Target parameters classes
+   * @throws NoSuchMethodException
+   *             Thrown when a particular method cannot be found.
+   *
+   * @return {@link AsyncMethodInvoker} sub object
+   */
+  public static AsyncMethodInvoker create(final Class<?> beanClass,
+                                          final String name, final Class<?>... parameterClasses) throws NoSuchMethodException {
+
+    final Method targetMethod = beanClass.getDeclaredMethod(name, parameterClasses);
+
+    return new AsyncMethodInvokerGenerator(targetMethod, beanClass).create();
+  }
+
+  /**
+   * Get the default executor: a virtual thread per task executor on JDK 21+,
+   * otherwise a bounded pool of daemon threads
+   *
+   * @return the shared default executor
+   */
+  public static Executor getDefaultExecutor() {
+    return DefaultExecutorHolder.EXECUTOR;
+  }
+
+  static final class DefaultExecutorHolder {
+
+    static final Executor EXECUTOR = createDefaultExecutor();
+
+    static Executor createDefaultExecutor() {
+      try {
+        return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch (ReflectiveOperationException e) {
+        // before JDK 21
+        final int size = Runtime.getRuntime().availableProcessors() * 2;
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+                                                                   new LinkedBlockingQueue<>(),
+                                                                   new InvokerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+      }
+    }
+  }
+
+  static final class InvokerThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(r, "async-invoker-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /**
+   * The future returned to caller and the task submitted to the executor.
+   * <p>
+   * Sub classes are generated with a {@code run()} that invokes the target
+   * method and completes the future. {@code run()} is public only for the
+   * executor: callers holding the future must not run it.
+   */
+  public static abstract class InvocationTask extends CompletableFuture<Object> implements Runnable {
+
+    protected Object obj;
+    protected Object[] args;
+
+    protected InvocationTask(Object obj, Object[] args) {
+      this.obj = obj;
+      this.args = args;
+    }
+
+    /**
+     * Create a new task of the same class
+     *
+     * @param obj
+     *            Target object
+     * @param args
+     *            Arguments
+     * @return a new task
+     */
+    protected abstract InvocationTask newTask(Object obj, Object[] args);
+
+    /**
+     * Complete with the result of a {@link CompletionStage} returned by target
+     * method
+     */
+    protected final void completeStage(Object result) {
+      if (result == null) {
+        complete(null);
+      }
+      else {
+        ((CompletionStage<?>) result).whenComplete((value, ex) -> {
+          if (ex == null) {
+            complete(value);
+          }
+          else {
+            completeExceptionally(ex);
+          }
+        });
+      }
+    }
+  }
+
+}
@@ -0,0 +1,240 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+
+/**
+ * {@link AsyncMethodInvoker} object generator.
+ * <p>
+ * Generates two classes: the invoker, and a {@link AsyncMethodInvoker.InvocationTask}
+ * whose {@code run()} holds its own copy of the {@code invoke} body. The
+ * invoker creates tasks from a prototype, so it never refers to the task class
+ * by name, which could be a hidden class.
+ *
+ * @author TODAY <br>
+ *         2020-08-21 22:10
+ */
+public class AsyncMethodInvokerGenerator extends MethodInvokerGenerator {
+
+  private static final String superType = "cn/taketoday/invoker/AsyncMethodInvoker";
+  private static final String[] interfaces = { "cn/taketoday/invoker/Invoker", "cn/taketoday/invoker/AsyncInvoker" };
+  private static final String constructorDescriptor = "(Ljava/util/concurrent/Executor;Lcn/taketoday/invoker/AsyncMethodInvoker$InvocationTask;)V";
+  private static final String taskSuperType = "cn/taketoday/invoker/AsyncMethodInvoker$InvocationTask";
+  private static final String taskConstructorDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)V";
+  private static final String newTaskDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)Lcn/taketoday/invoker/AsyncMethodInvoker$InvocationTask;";
+  private static final String invokeDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+  private final Executor executor;
+
+  public AsyncMethodInvokerGenerator(Method method) {
+    this(method, AsyncMethodInvoker.getDefaultExecutor());
+  }
+
+  public AsyncMethodInvokerGenerator(Method method, Class<?> targetClass) {
+    this(method, targetClass, AsyncMethodInvoker.getDefaultExecutor());
+  }
+
+  public AsyncMethodInvokerGenerator(Method method, Executor executor) {
+    this(method, method.getDeclaringClass(), executor);
+  }
+
+  public AsyncMethodInvokerGenerator(Method method, Class<?> targetClass, Executor executor) {
+    super(method, targetClass);
+    if (executor == null) {
+      throw new IllegalArgumentException("executor must not be null");
+    }
+    this.executor = executor;
+  }
+
+  /**
+   * Create {@link AsyncMethodInvoker} sub object
+   *
+   * @return {@link AsyncMethodInvoker} sub object
+   */
+  @Override
+  public AsyncMethodInvoker create() {
+    try {
+      final AsyncMethodInvoker.InvocationTask prototype =
+              this.<AsyncMethodInvoker.InvocationTask>generateClass(getTaskClassName(), this::generateTaskClass)
+                      .getDeclaredConstructor(Object.class, Object[].class)
+                      .newInstance(null, null);
+
+      return this.<AsyncMethodInvoker>generateClass()
+              .getDeclaredConstructor(Executor.class, AsyncMethodInvoker.InvocationTask.class)
+              .newInstance(executor, prototype);
+    }
+    catch (ReflectiveOperationException e) {
+      throw new InvokerCreateException(e);
+    }
+  }
+
+  /**
+   * Whether target method already returns a {@link CompletionStage}, whose
+   * result will complete the future instead of the stage itself
+   */
+  protected boolean isReturnCompletionStage() {
+    return CompletionStage.class.isAssignableFrom(getTargetMethod().getReturnType());
+  }
+
+  @Override
+  protected void appendClassNameSuffix(StringBuilder builder) {
+    super.appendClassNameSuffix(builder);
+    builder.append("$async");
+  }
+
+  protected String getTaskClassName() {
+    return getClassName() + "$task";
+  }
+
+  @Override
+  protected String getSuperType() {
+    return superType;
+  }
+
+  @Override
+  protected String[] getInterfaces() {
+    return interfaces;
+  }
+
+  @Override
+  protected void generateConstructor(ClassVisitor cv) {
+
+    MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "<init>", constructorDescriptor, null, null);
+
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superType, "<init>", constructorDescriptor, false);
+    mv.visitInsn(Opcodes.RETURN);
+    mv.visitMaxs(0, 0);
+  }
+
+  /**
+   * Generate the {@link AsyncMethodInvoker.InvocationTask} sub class
+   *
+   * @param cv
+   *            {@link ClassVisitor}
+   */
+  protected void generateTaskClass(ClassVisitor cv) {
+    final String taskType = getTaskClassName().replace('.', '/');
+    cv.visit(ClassDefiner.getClassVersion(), ACC_PUBLIC | ACC_FINAL, taskType, null, taskSuperType, null);
+    cv.visitSource("<generated>", null);
+
+    // constructor
+    MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "<init>", taskConstructorDescriptor, null, null);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, taskSuperType, "<init>", taskConstructorDescriptor, false);
+    mv.visitInsn(Opcodes.RETURN);
+    mv.visitMaxs(0, 0);
+
+    // newTask: return new Task(obj, args)
+    mv = cv.visitMethod(ACC_PROTECTED | ACC_FINAL, "newTask", newTaskDescriptor, null, null);
+    mv.visitTypeInsn(Opcodes.NEW, taskType);
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, taskType, "<init>", taskConstructorDescriptor, false);
+    mv.visitInsn(Opcodes.ARETURN);
+    mv.visitMaxs(0, 0);
+
+    generateRun(cv, taskType);
+    generateInvoke(cv, ACC_PRIVATE, "invoke0");
+
+    cv.visitEnd();
+  }
+
+  /**
+   * Generate the task's {@code run()}, the local variables 1 and 2 hold target
+   * object and arguments like in {@code invoke}
+   */
+  protected void generateRun(ClassVisitor cv, String taskType) {
+    final MethodVisitor mv = cv.visitMethod(ACC_PUBLIC | ACC_FINAL, "run", "()V", null, null);
+    final Label start = new Label();
+    final Label tryStart = new Label();
+    final Label tryEnd = new Label();
+    final Label handler = new Label();
+    mv.visitTryCatchBlock(tryStart, tryEnd, handler, "java/lang/Throwable");
+
+    // cancelled
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, taskSuperType, "isDone", "()Z", false);
+    mv.visitJumpInsn(Opcodes.IFEQ, start);
+    mv.visitInsn(Opcodes.RETURN);
+
+    mv.visitLabel(start);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, taskSuperType, "obj", "Ljava/lang/Object;");
+    mv.visitVarInsn(Opcodes.ASTORE, 1);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, taskSuperType, "args", "[Ljava/lang/Object;");
+    mv.visitVarInsn(Opcodes.ASTORE, 2);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitInsn(Opcodes.ACONST_NULL);
+    mv.visitFieldInsn(Opcodes.PUTFIELD, taskSuperType, "obj", "Ljava/lang/Object;");
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitInsn(Opcodes.ACONST_NULL);
+    mv.visitFieldInsn(Opcodes.PUTFIELD, taskSuperType, "args", "[Ljava/lang/Object;");
+
+    mv.visitLabel(tryStart);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, taskType, "invoke0", invokeDescriptor, false);
+    if (isReturnCompletionStage()) {
+      mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, taskSuperType, "completeStage", "(Ljava/lang/Object;)V", false);
+    }
+    else {
+      mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, taskSuperType, "complete", "(Ljava/lang/Object;)Z", false);
+      mv.visitInsn(Opcodes.POP);
+    }
+    mv.visitLabel(tryEnd);
+    mv.visitInsn(Opcodes.RETURN);
+
+    mv.visitLabel(handler);
+    mv.visitVarInsn(Opcodes.ASTORE, 3);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 3);
+    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, taskSuperType, "completeExceptionally", "(Ljava/lang/Throwable;)Z", false);
+    mv.visitInsn(Opcodes.POP);
+    mv.visitInsn(Opcodes.RETURN);
+    mv.visitMaxs(0, 0);
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import java.lang.reflect.Method;
+
+/**
+ * A method invoker bound to its target object and optionally to its leading
+ * arguments, stored in final fields of the generated class.
+ * <p>
+ * Calls skip loading and casting the target object and the bound arguments.
+ * When the class is defined as a hidden class, with
+ * {@link InvokerScope#bind(Method, Object, Object...)} on JDK 17+, the JIT also
+ * trusts these final fields as constants.
+ *
+ * <pre>
+ * BoundMethodInvoker handler = BoundMethodInvoker.create(method, controller, request);
+ * handler.call(new Object[] { response });
+ * </pre>
+ *
+ * @author TODAY <br>
+ *         2020-09-10 20:05
+ */
+public abstract class BoundMethodInvoker {
+
+  /**
+   * Invoke target method with the remaining (not bound) arguments
+   *
+   * @param args
+   *            arguments after the bound ones
+   * @return target method's result
+   */
+  public abstract Object call(Object[] args);
+
+  /**
+   * Invoke target method when all arguments are bound
+   *
+   * @return target method's result
+   */
+  public Object call() {
+    return call(null);
+  }
+
+  /**
+   * Create a {@link BoundMethodInvoker}
+   *
+   * @param method
+   *            Target method to invoke
+   * @param target
+   *            target object, ignored for a static method
+   * @param boundArgs
+   *            leading arguments to bind
+   * @return {@link BoundMethodInvoker} sub object
+   */
+  public static BoundMethodInvoker create(Method method, Object target, Object... boundArgs) {
+    return new BoundMethodInvokerGenerator(method, boundArgs.length).create(target, boundArgs);
+  }
+
+}
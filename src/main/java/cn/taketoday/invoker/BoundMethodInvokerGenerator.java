@@ -0,0 +1,261 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+
+/**
+ * {@link BoundMethodInvoker} object generator.
+ * <p>
+ * Bound invokers are not {@link MethodInvoker}s, so this generator shares the
+ * parameter, argument check and target invocation emission of
+ * {@link MethodInvokerGenerator} by composition instead of extending it.
+ *
+ * @author TODAY <br>
+ *         2020-09-10 20:20
+ */
+public class BoundMethodInvokerGenerator {
+
+  private static final String SOURCE_FILE = "<generated>";
+  private static final String superType = "cn/taketoday/invoker/BoundMethodInvoker";
+  private static final String constructorDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)V";
+  private static final String callDescriptor = "([Ljava/lang/Object;)Ljava/lang/Object;";
+
+  private static final String TARGET_FIELD = "target";
+  private static final String ARGUMENT_FIELD = "arg";
+
+  private final int boundCount;
+  private final Emitter emitter;
+
+  public BoundMethodInvokerGenerator(Method method, int boundCount) {
+    this(method, method.getDeclaringClass(), boundCount);
+  }
+
+  public BoundMethodInvokerGenerator(Method method, Class<?> targetClass, int boundCount) {
+    if (boundCount < 0 || boundCount > method.getParameterCount()) {
+      throw new IllegalArgumentException("Can't bind " + boundCount + " argument(s) of method " + method);
+    }
+    this.boundCount = boundCount;
+    this.emitter = new Emitter(method, targetClass);
+  }
+
+  /**
+   * Create {@link BoundMethodInvoker} sub object
+   *
+   * @param target
+   *            target object, ignored for a static method
+   * @param boundArgs
+   *            leading arguments to bind
+   * @return {@link BoundMethodInvoker} sub object
+   */
+  public BoundMethodInvoker create(Object target, Object... boundArgs) {
+    if (boundArgs.length != boundCount) {
+      throw new IllegalArgumentException("Expected " + boundCount + " bound argument(s) but got " + boundArgs.length);
+    }
+    try {
+      return emitter.<BoundMethodInvoker>generateClass()
+              .getDeclaredConstructor(Object.class, Object[].class)
+              .newInstance(target, boundArgs);
+    }
+    catch (InvocationTargetException e) {
+      // generated argument checks
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new InvokerCreateException(cause);
+    }
+    catch (ReflectiveOperationException e) {
+      throw new InvokerCreateException(e);
+    }
+  }
+
+  /**
+   * @see MethodInvokerGenerator#setCheckArguments(boolean)
+   */
+  public void setCheckArguments(boolean checkArguments) {
+    emitter.setCheckArguments(checkArguments);
+  }
+
+  public boolean isCheckArguments() {
+    return emitter.isCheckArguments();
+  }
+
+  /**
+   * @see MethodInvokerGenerator#setScope(InvokerScope)
+   */
+  public void setScope(InvokerScope scope) {
+    emitter.setScope(scope);
+  }
+
+  public InvokerScope getScope() {
+    return emitter.getScope();
+  }
+
+  public Method getTargetMethod() {
+    return emitter.getTargetMethod();
+  }
+
+  public Class<?> getTargetClass() {
+    return emitter.getTargetClass();
+  }
+
+  public int getBoundCount() {
+    return boundCount;
+  }
+
+  /**
+   * Emits the bound invoker class with the helpers of {@link MethodInvokerGenerator}
+   */
+  private final class Emitter extends MethodInvokerGenerator {
+
+    Emitter(Method method, Class<?> targetClass) {
+      super(method, targetClass);
+    }
+
+    @Override
+    public void generateClass(ClassVisitor cv) {
+      final Method targetMethod = getTargetMethod();
+      final int modifiers = targetMethod.getModifiers();
+      if (Modifier.isPrivate(modifiers)) {
+        throw new InvokerCreateException("Can't access to a private method");
+      }
+
+      final String className = getClassName().replace('.', '/');
+      cv.visit(ClassDefiner.getClassVersion(), ACC_PUBLIC | ACC_FINAL, className, null, superType, null);
+      cv.visitSource(SOURCE_FILE, null);
+
+      final boolean isStatic = Modifier.isStatic(modifiers);
+      final Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+      if (!isStatic) {
+        cv.visitField(ACC_PRIVATE | ACC_FINAL, TARGET_FIELD, Type.getDescriptor(getTargetClass()), null, null).visitEnd();
+      }
+      for (int i = 0; i < boundCount; i++) {
+        cv.visitField(ACC_PRIVATE | ACC_FINAL, ARGUMENT_FIELD + i, Type.getDescriptor(parameterTypes[i]), null, null).visitEnd();
+      }
+
+      generateConstructor(cv, className);
+      generateCall(cv, className, true);
+      if (boundCount == parameterTypes.length) {
+        generateCall(cv, className, false);
+      }
+      cv.visitEnd(); //end class
+    }
+
+    /**
+     * Generate constructor storing target object and bound arguments
+     *
+     * @param cv
+     *            {@link ClassWriter}
+     * @param className
+     *            internal name of generated class
+     */
+    protected void generateConstructor(ClassVisitor cv, String className) {
+      final Method targetMethod = getTargetMethod();
+      final Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+
+      MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "<init>", constructorDescriptor, null, null);
+
+      mv.visitVarInsn(Opcodes.ALOAD, 0);
+      mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superType, "<init>", "()V", false);
+
+      if (isCheckArguments()) {
+        if (!Modifier.isStatic(targetMethod.getModifiers())) {
+          checkTarget(mv, 1);
+        }
+        checkArguments(mv, 2, 0, boundCount);
+      }
+
+      if (!Modifier.isStatic(targetMethod.getModifiers())) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        checkcast(mv, getTargetClass());
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, TARGET_FIELD, Type.getDescriptor(getTargetClass()));
+      }
+      for (int i = 0; i < boundCount; i++) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        aaload(mv, i);
+        convertArgument(mv, parameterTypes[i]);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, ARGUMENT_FIELD + i, Type.getDescriptor(parameterTypes[i]));
+      }
+      mv.visitInsn(Opcodes.RETURN);
+      mv.visitMaxs(0, 0);
+    }
+
+    /**
+     * Generate {@code call(Object[])} or {@code call()}
+     *
+     * @param cv
+     *            {@link ClassWriter}
+     * @param className
+     *            internal name of generated class
+     * @param withArguments
+     *            generate {@code call(Object[])}
+     */
+    protected void generateCall(ClassVisitor cv, String className, boolean withArguments) {
+      final Method targetMethod = getTargetMethod();
+      final Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+
+      MethodVisitor mv = withArguments
+                         ? cv.visitMethod(ACC_PUBLIC | ACC_FINAL, "call", callDescriptor, null, null)
+                         : cv.visitMethod(ACC_PUBLIC | ACC_FINAL, "call", "()Ljava/lang/Object;", null, null);
+
+      if (withArguments && isCheckArguments()) {
+        checkArguments(mv, 1, boundCount, parameterTypes.length);
+      }
+
+      if (!Modifier.isStatic(targetMethod.getModifiers())) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, TARGET_FIELD, Type.getDescriptor(getTargetClass()));
+      }
+      for (int i = 0; i < boundCount; i++) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, ARGUMENT_FIELD + i, Type.getDescriptor(parameterTypes[i]));
+      }
+      if (withArguments) {
+        resolveParameter(mv, 1, boundCount);
+      }
+
+      invokeTargetMethod(mv);
+      returnValue(mv);
+      mv.visitMaxs(0, 0);
+    }
+
+    @Override
+    protected void appendClassNameSuffix(StringBuilder builder) {
+      super.appendClassNameSuffix(builder);
+      builder.append("$bound").append(boundCount);
+    }
+  }
+
+}
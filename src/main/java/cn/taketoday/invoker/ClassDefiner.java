@@ -0,0 +1,68 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import org.objectweb.asm.Opcodes;
+
+import java.security.ProtectionDomain;
+
+/**
+ * Defines generated classes, Java 8 baseline.
+ * <p>
+ * The multi-release jar replaces this class on newer JDKs, see
+ * {@code src/main/java17}.
+ *
+ * @author TODAY <br>
+ *         2020-09-02 21:16
+ */
+final class ClassDefiner {
+
+  /**
+   * Get class file version of generated classes
+   */
+  static int getClassVersion() {
+    return Opcodes.V1_8;
+  }
+
+  /**
+   * Define a class in the class loader and package of target class
+   */
+  static <T> Class<T> defineClass(Class<?> targetClass, String className, byte[] b,
+                                  ClassLoader loader, ProtectionDomain protection) throws Exception {
+    return MethodInvokerGenerator.defineClass(b, className, loader, protection);
+  }
+
+  /**
+   * Whether a hidden class can be defined in target class's package
+   */
+  static boolean isHiddenClassSupported(Class<?> targetClass) {
+    return false;
+  }
+
+  /**
+   * Define a hidden class in target class's package
+   *
+   * @return the hidden class, {@code null} if not supported
+   */
+  static <T> Class<T> defineHiddenClass(Class<?> targetClass, byte[] b) {
+    return null;
+  }
+
+}
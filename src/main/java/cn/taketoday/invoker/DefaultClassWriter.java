@@ -42,6 +42,7 @@ public class DefaultClassWriter extends ClassWriter {
   public static final String DEBUG_LOCATION_PROPERTY = "cglib.debugLocation";
 
   private final String className;
+  private final ClassLoader classLoader;
   private static String debugLocation;
   private static Constructor<?> traceCtor;
 
@@ -59,8 +60,25 @@ public class DefaultClassWriter extends ClassWriter {
   }
 
   public DefaultClassWriter(String className) {
+    this(className, null);
+  }
+
+  /**
+   * @param className
+   *            generated class name
+   * @param classLoader
+   *            ClassLoader to load the types used in generated class while
+   *            computing frames, {@code null} to use ASM's loader
+   */
+  public DefaultClassWriter(String className, ClassLoader classLoader) {
     super(ClassWriter.COMPUTE_FRAMES);
     this.className = className;
+    this.classLoader = classLoader;
+  }
+
+  @Override
+  protected ClassLoader getClassLoader() {
+    return classLoader == null ? super.getClassLoader() : classLoader;
   }
 
   @Override
@@ -0,0 +1,169 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A static method called around target method, compiled directly into the
+ * generated {@code invoke} method by {@link MethodInvokerGenerator}.
+ * <p>
+ * Hook method signatures:
+ * <ul>
+ * <li>before: {@code static void before(Object obj, Object[] args)}</li>
+ * <li>after: {@code static Object after(Object obj, Object[] args, Object result)},
+ * returns the result to use</li>
+ * <li>around: {@code static Object enter(Object obj, Object[] args)} and
+ * {@code static void exit(Object context, Throwable ex)}, {@code exit} receives
+ * the value returned from {@code enter} and is called in a {@code finally}
+ * block, with a {@code null} exception when target method returns normally</li>
+ * </ul>
+ * Hooks are applied in list order, the first hook is the outermost one.
+ *
+ * @author TODAY <br>
+ *         2020-08-23 10:12
+ */
+public final class InvocationHook {
+
+  public enum Kind {
+    BEFORE, AFTER, AROUND
+  }
+
+  private final Kind kind;
+  private final Method method;
+  /** around exit method */
+  private final Method exitMethod;
+
+  private InvocationHook(Kind kind, Method method, Method exitMethod) {
+    this.kind = kind;
+    this.method = method;
+    this.exitMethod = exitMethod;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Get hook method, the enter method for an around hook
+   */
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * Get exit method of an around hook
+   */
+  public Method getExitMethod() {
+    return exitMethod;
+  }
+
+  /**
+   * Create a hook called before target method
+   *
+   * @param method
+   *            {@code static void before(Object obj, Object[] args)}
+   * @return a before hook
+   */
+  public static InvocationHook before(Method method) {
+    checkHookMethod(method, void.class, Object.class, Object[].class);
+    return new InvocationHook(Kind.BEFORE, method, null);
+  }
+
+  public static InvocationHook before(Class<?> hookClass, String name) throws NoSuchMethodException {
+    return before(hookClass.getDeclaredMethod(name, Object.class, Object[].class));
+  }
+
+  /**
+   * Create a hook called after target method returns normally
+   *
+   * @param method
+   *            {@code static Object after(Object obj, Object[] args, Object result)}
+   * @return an after hook
+   */
+  public static InvocationHook after(Method method) {
+    checkHookMethod(method, Object.class, Object.class, Object[].class, Object.class);
+    return new InvocationHook(Kind.AFTER, method, null);
+  }
+
+  public static InvocationHook after(Class<?> hookClass, String name) throws NoSuchMethodException {
+    return after(hookClass.getDeclaredMethod(name, Object.class, Object[].class, Object.class));
+  }
+
+  /**
+   * Create a hook around target method
+   *
+   * @param enter
+   *            {@code static Object enter(Object obj, Object[] args)}
+   * @param exit
+   *            {@code static void exit(Object context, Throwable ex)}
+   * @return an around hook
+   */
+  public static InvocationHook around(Method enter, Method exit) {
+    checkHookMethod(enter, Object.class, Object.class, Object[].class);
+    checkHookMethod(exit, void.class, Object.class, Throwable.class);
+    return new InvocationHook(Kind.AROUND, enter, exit);
+  }
+
+  public static InvocationHook around(Class<?> hookClass, String enter, String exit) throws NoSuchMethodException {
+    return around(hookClass.getDeclaredMethod(enter, Object.class, Object[].class),
+                  hookClass.getDeclaredMethod(exit, Object.class, Throwable.class));
+  }
+
+  static void checkHookMethod(Method method, Class<?> returnType, Class<?>... parameterTypes) {
+    final int modifiers = method.getModifiers();
+    if (!Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)) {
+      throw new InvokerCreateException("Hook method " + method + " must be a non-private static method");
+    }
+    if (method.getReturnType() != returnType
+        || !Arrays.equals(method.getParameterTypes(), parameterTypes)) {
+      throw new InvokerCreateException("Hook method " + method + " must be declared as "
+                                               + returnType.getTypeName() + " " + method.getName()
+                                               + Arrays.toString(parameterTypes));
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof InvocationHook)) {
+      return false;
+    }
+    final InvocationHook other = (InvocationHook) obj;
+    return kind == other.kind
+            && method.equals(other.method)
+            && Objects.equals(exitMethod, other.exitMethod);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(kind, method, exitMethod);
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + method + (exitMethod == null ? "" : " / " + exitMethod);
+  }
+}
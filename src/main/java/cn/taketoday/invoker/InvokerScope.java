@@ -0,0 +1,270 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.security.ProtectionDomain;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A group of generated invoker classes that can be released together.
+ * <p>
+ * Classes of a scope are defined as hidden classes on JDK 17+ (multi-release
+ * jar), or in a dedicated child class loader of the target class loader
+ * otherwise, instead of the target class loader itself. So after
+ * {@link #release()} they can be unloaded once the invokers created from them
+ * are no longer referenced, even if the target class loader stays alive.
+ * Since the child loader is another runtime package, target classes, methods
+ * and hooks must then be public.
+ * <p>
+ * Target classes must be loaded by the parent class loader or one of its
+ * ancestors. Note that on JDK 17+ a hidden class is always defined in the
+ * target class's own loader, the scope only keeps track of it.
+ * <p>
+ * {@link #of(ClassLoader)} keeps one scope per class loader. The registry holds
+ * class loaders and scopes weakly, it never prevents a plugin class loader or
+ * an unused scope from being collected.
+ *
+ * @author TODAY <br>
+ *         2020-08-25 20:18
+ */
+public class InvokerScope {
+
+  private static final Map<ClassLoader, WeakReference<InvokerScope>> scopes = new WeakHashMap<>();
+
+  private final ClassLoader parent;
+  private ScopeClassLoader classLoader;
+  private final Map<String, Class<?>> classes = new HashMap<>();
+
+  public InvokerScope(ClassLoader parent) {
+    if (parent == null) {
+      throw new IllegalArgumentException("parent ClassLoader must not be null");
+    }
+    this.parent = parent;
+    this.classLoader = new ScopeClassLoader(parent);
+  }
+
+  /**
+   * Create a {@link MethodInvoker} defined in this scope
+   *
+   * @param method
+   *            Target method to invoke
+   * @return {@link MethodInvoker} sub object
+   */
+  public MethodInvoker create(Method method) {
+    return create(new MethodInvokerGenerator(method));
+  }
+
+  /**
+   * Create an invoker from the given generator, defined in this scope
+   *
+   * @param generator
+   *            the generator to use
+   * @return {@link MethodInvoker} sub object
+   */
+  public MethodInvoker create(MethodInvokerGenerator generator) {
+    generator.setScope(this);
+    return generator.create();
+  }
+
+  /**
+   * Create a {@link BoundMethodInvoker} defined in this scope. On JDK 17+ it is
+   * a hidden class whose final fields the JIT trusts as constants.
+   *
+   * @param method
+   *            Target method to invoke
+   * @param target
+   *            target object, ignored for a static method
+   * @param boundArgs
+   *            leading arguments to bind
+   * @return {@link BoundMethodInvoker} sub object
+   */
+  public BoundMethodInvoker bind(Method method, Object target, Object... boundArgs) {
+    return create(new BoundMethodInvokerGenerator(method, boundArgs.length), target, boundArgs);
+  }
+
+  /**
+   * Create a bound invoker from the given generator, defined in this scope
+   *
+   * @param generator
+   *            the generator to use
+   * @param target
+   *            target object, ignored for a static method
+   * @param boundArgs
+   *            leading arguments to bind
+   * @return {@link BoundMethodInvoker} sub object
+   */
+  public BoundMethodInvoker create(BoundMethodInvokerGenerator generator, Object target, Object... boundArgs) {
+    generator.setScope(this);
+    return generator.create(target, boundArgs);
+  }
+
+  /**
+   * Find a class already defined in this scope
+   *
+   * @param className
+   *            class name
+   * @return the class or {@code null} if not defined
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> Class<T> findClass(String className) {
+    return (Class<T>) classes.get(className);
+  }
+
+  /**
+   * Define a generated class of target class in this scope
+   *
+   * @throws IllegalStateException
+   *             if this scope has been released
+   * @throws InvokerCreateException
+   *             if target class is not visible from the parent class loader
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> Class<T> defineClass(Class<?> targetClass, String className,
+                                               byte[] b, ProtectionDomain protection) {
+    final ScopeClassLoader classLoader = this.classLoader;
+    if (classLoader == null) {
+      throw new IllegalStateException("Scope of " + parent + " has been released");
+    }
+    if (!isVisible(targetClass.getClassLoader())) {
+      throw new InvokerCreateException("Class " + targetClass.getName() + " of " + targetClass.getClassLoader()
+                                               + " is not visible from scope class loader " + parent);
+    }
+    Class<?> ret = classes.get(className);
+    if (ret == null) {
+      ret = ClassDefiner.defineHiddenClass(targetClass, b);
+      if (ret != null) {
+        classes.put(className, ret);
+        return (Class<T>) ret;
+      }
+      ret = classLoader.define(className, b, protection);
+      try {
+        // Force static initializers to run.
+        Class.forName(className, true, classLoader);
+      }
+      catch (ClassNotFoundException e) {
+        throw new InvokerCreateException(e);
+      }
+      classes.put(className, ret);
+    }
+    return (Class<T>) ret;
+  }
+
+  /**
+   * Whether the given loader is the parent class loader or one of its ancestors
+   */
+  private boolean isVisible(ClassLoader loader) {
+    for (ClassLoader current = parent; current != null; current = current.getParent()) {
+      if (current == loader) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Release all classes of this scope. Invokers already created keep working
+   * and their classes are unloaded as soon as they are no longer referenced.
+   * This scope can not define classes anymore.
+   */
+  public void release() {
+    synchronized (this) {
+      classes.clear();
+      classLoader = null;
+    }
+    synchronized (scopes) {
+      final WeakReference<InvokerScope> ref = scopes.get(parent);
+      if (ref != null && ref.get() == this) {
+        scopes.remove(parent);
+      }
+    }
+  }
+
+  public synchronized boolean isReleased() {
+    return classLoader == null;
+  }
+
+  /**
+   * Get count of classes defined in this scope
+   */
+  public synchronized int getClassCount() {
+    return classes.size();
+  }
+
+  public ClassLoader getParent() {
+    return parent;
+  }
+
+  /**
+   * Get the shared scope of the given class loader, create it if necessary.
+   * Callers should keep a reference to the scope as long as they use it.
+   *
+   * @param classLoader
+   *            target class loader
+   * @return the scope of the class loader
+   */
+  public static InvokerScope of(ClassLoader classLoader) {
+    synchronized (scopes) {
+      final WeakReference<InvokerScope> ref = scopes.get(classLoader);
+      InvokerScope scope = ref == null ? null : ref.get();
+      if (scope == null) {
+        scope = new InvokerScope(classLoader);
+        scopes.put(classLoader, new WeakReference<>(scope));
+      }
+      return scope;
+    }
+  }
+
+  /**
+   * Release the shared scope of the given class loader if any
+   *
+   * @param classLoader
+   *            target class loader
+   */
+  public static void release(ClassLoader classLoader) {
+    final WeakReference<InvokerScope> ref;
+    synchronized (scopes) {
+      ref = scopes.remove(classLoader);
+    }
+    final InvokerScope scope = ref == null ? null : ref.get();
+    if (scope != null) {
+      scope.release();
+    }
+  }
+
+  static final class ScopeClassLoader extends ClassLoader {
+
+    static {
+      registerAsParallelCapable();
+    }
+
+    ScopeClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String className, byte[] b, ProtectionDomain protection) {
+      return defineClass(className, b, 0, b.length, protection);
+    }
+  }
+
+}
@@ -20,6 +20,10 @@
 package cn.taketoday.invoker;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author TODAY <br>
@@ -41,6 +45,21 @@ public abstract class MethodInvoker implements Invoker {
     return new MethodInvokerGenerator(method).create();
   }
 
+  /**
+   * Create a {@link MethodInvoker} with hooks compiled into it
+   *
+   * @param method
+   *            Target method to invoke
+   * @param hooks
+   *            hooks around target method, the first one is the outermost
+   * @return {@link MethodInvoker} sub object
+   */
+  public static MethodInvoker create(Method method, InvocationHook... hooks) {
+    final MethodInvokerGenerator generator = new MethodInvokerGenerator(method);
+    generator.addHooks(Arrays.asList(hooks));
+    return generator.create();
+  }
+
   /**
    * Create a {@link MethodInvoker}
    *
@@ -63,4 +82,164 @@ public abstract class MethodInvoker implements Invoker {
     return new MethodInvokerGenerator(targetMethod, beanClass).create();
   }
 
+  // method references
+  // -----------------------------------------
+
+  /**
+   * Create a {@link MethodInvoker} from a static method reference
+   *
+   * @param reference
+   *            method reference such as {@code Bean::create}
+   * @return {@link MethodInvoker} sub object
+   * @see MethodReference
+   */
+  public static <R> MethodInvoker create(MethodReference.Supplier<R> reference) {
+    return create(reference.getMethod());
+  }
+
+  /**
+   * Create a {@link MethodInvoker} from a static void method reference
+   *
+   * @param reference
+   *            method reference such as {@code Bean::init}
+   * @return {@link MethodInvoker} sub object
+   * @see MethodReference
+   */
+  public static MethodInvoker create(MethodReference.Runnable reference) {
+    return create(reference.getMethod());
+  }
+
+  /**
+   * Create a {@link MethodInvoker} from a method reference
+   *
+   * @param reference
+   *            method reference such as {@code Bean::getName}
+   * @return {@link MethodInvoker} sub object
+   * @see MethodReference
+   */
+  public static <T, R> MethodInvoker create(MethodReference.Function<T, R> reference) {
+    return create(reference.getMethod());
+  }
+
+  /**
+   * Create a {@link MethodInvoker} from a void method reference
+   *
+   * @param reference
+   *            method reference such as {@code Bean::close}
+   * @return {@link MethodInvoker} sub object
+   * @see MethodReference
+   */
+  public static <T> MethodInvoker create(MethodReference.Consumer<T> reference) {
+    return create(reference.getMethod());
+  }
+
+  /**
+   * Create a {@link MethodInvoker} from a method reference
+   *
+   * @param reference
+   *            method reference such as {@code Bean::withName}
+   * @return {@link MethodInvoker} sub object
+   * @see MethodReference
+   */
+  public static <T, U, R> MethodInvoker create(MethodReference.BiFunction<T, U, R> reference) {
+    return create(reference.getMethod());
+  }
+
+  /**
+   * Create a {@link MethodInvoker} from a void method reference
+   *
+   * @param reference
+   *            method reference such as {@code Bean::setName}
+   * @return {@link MethodInvoker} sub object
+   * @see MethodReference
+   */
+  public static <T, U> MethodInvoker create(MethodReference.BiConsumer<T, U> reference) {
+    return create(reference.getMethod());
+  }
+
+  /**
+   * Create a {@link MethodInvoker} of the setter of a property from its getter
+   * reference.
+   * <p>
+   * The setter is named like Kotlin property and JavaBeans setters:
+   * {@code getName} and {@code isName} have a {@code setName} setter, that
+   * takes the getter's return type and is declared in the getter's declaring
+   * class or a super class.
+   *
+   * @param getter
+   *            getter reference such as {@code Bean::getName}
+   * @return {@link MethodInvoker} sub object of the setter
+   * @throws InvokerCreateException
+   *             if there is no such setter
+   * @see MethodReference
+   */
+  public static <T, R> MethodInvoker createSetter(MethodReference.Function<T, R> getter) {
+    return create(findSetter(getter.getMethod()));
+  }
+
+  private static Method findSetter(final Method getter) {
+    final String name = getter.getName();
+    final String property;
+    if (name.startsWith("get") && name.length() > 3) {
+      property = name.substring(3);
+    }
+    else if (name.startsWith("is") && name.length() > 2) {
+      property = name.substring(2);
+    }
+    else {
+      throw new InvokerCreateException(getter + " is not a property getter");
+    }
+    final String setterName = "set" + property;
+    for (Class<?> type = getter.getDeclaringClass(); type != null; type = type.getSuperclass()) {
+      try {
+        final Method setter = type.getDeclaredMethod(setterName, getter.getReturnType());
+        final int modifiers = setter.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)) {
+          return setter;
+        }
+      }
+      catch (NoSuchMethodException e) {
+        // try super class
+      }
+    }
+    throw new InvokerCreateException("No setter " + setterName + "(" + getter.getReturnType().getName()
+                                             + ") for getter " + getter);
+  }
+
+  /**
+   * Create {@link MethodInvoker}s of all the record component accessors of a
+   * record class (JDK 16+)
+   *
+   * @param recordClass
+   *            record class
+   * @return component name to accessor invoker, in declaration order
+   * @throws IllegalArgumentException
+   *             if given class is not a record class
+   */
+  public static Map<String, MethodInvoker> createRecordComponents(Class<?> recordClass) {
+    final Object[] components;
+    try {
+      components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(recordClass);
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Records are not supported on this JDK", e);
+    }
+    if (components == null) {
+      throw new IllegalArgumentException(recordClass.getName() + " is not a record class");
+    }
+    final LinkedHashMap<String, MethodInvoker> ret = new LinkedHashMap<>(components.length * 2);
+    try {
+      for (final Object component : components) {
+        final Class<?> componentClass = component.getClass();
+        final String name = (String) componentClass.getMethod("getName").invoke(component);
+        final Method accessor = (Method) componentClass.getMethod("getAccessor").invoke(component);
+        ret.put(name, new MethodInvokerGenerator(accessor, recordClass).create());
+      }
+    }
+    catch (ReflectiveOperationException e) {
+      throw new InvokerCreateException(e);
+    }
+    return ret;
+  }
+
 }
@@ -21,18 +21,24 @@ package cn.taketoday.invoker;
 
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
 import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
@@ -58,6 +64,17 @@ public class MethodInvokerGenerator {
   private static final String superType = "cn/taketoday/invoker/MethodInvoker";
   private static final String[] interfaces = { "cn/taketoday/invoker/Invoker" };
   private static final String invokeDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+  private static final String illegalArgumentType = "java/lang/IllegalArgumentException";
+  private static final String beforeHookDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)V";
+  private static final String afterHookDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;";
+  private static final String enterHookDescriptor = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+  private static final String exitHookDescriptor = "(Ljava/lang/Object;Ljava/lang/Throwable;)V";
+
+  /**
+   * System property to enable generated argument checks by default
+   */
+  public static final String CHECK_ARGUMENTS_PROPERTY = "invoker.checkArguments";
+  private static final boolean DEFAULT_CHECK_ARGUMENTS = Boolean.getBoolean(CHECK_ARGUMENTS_PROPERTY);
 
   // loader
   // -----------------------------------------
@@ -73,6 +90,9 @@ public class MethodInvokerGenerator {
   private String className;
   private final Class<?> targetClass;
   private final Method targetMethod;
+  private boolean checkArguments = DEFAULT_CHECK_ARGUMENTS;
+  private final List<InvocationHook> hooks = new ArrayList<>();
+  private InvokerScope scope;
 
   public MethodInvokerGenerator(Method method) {
     this(method, method.getDeclaringClass());
@@ -94,7 +114,7 @@ public class MethodInvokerGenerator {
    */
   public MethodInvoker create() {
     try {
-      return generateClass().getDeclaredConstructor().newInstance();
+      return this.<MethodInvoker>generateClass().getDeclaredConstructor().newInstance();
     }
     catch (ReflectiveOperationException e) {
       throw new InvokerCreateException(e);
@@ -106,21 +126,63 @@ public class MethodInvokerGenerator {
    *
    * @return {@link MethodInvoker} sub class
    */
-  protected Class<MethodInvoker> generateClass() {
+  protected <T> Class<T> generateClass() {
+    return generateClass(getClassName(), this::generateClass);
+  }
+
+  /**
+   * Generate a class in the same place as the sub class: target class's class
+   * loader or the {@link InvokerScope}
+   *
+   * @param className
+   *            name of the class to generate
+   * @param generator
+   *            generates the class into the given {@link ClassVisitor}
+   * @return the generated class, or the class already defined with this name
+   */
+  @SuppressWarnings("unchecked")
+  protected <T> Class<T> generateClass(final String className, final Consumer<ClassVisitor> generator) {
 
     try {
       final ClassLoader classLoader = targetClass.getClassLoader();
       if (classLoader == null) {
-        throw new IllegalStateException("ClassLoader is null while trying to define class " + getClassName()
+        throw new IllegalStateException("ClassLoader is null while trying to define class " + className
                                                 + ". It seems that the loader has been expired from a weak reference somehow. "
                                                 + "Please file an issue at cglib's issue tracker.");
       }
 
-      DefaultClassWriter classWriter = new DefaultClassWriter(getClassName());
-      generateClass(classWriter);
-      final byte[] b = classWriter.toByteArray();
+      final InvokerScope scope = this.scope;
+      if (scope != null) {
+        Class<T> ret = scope.findClass(className);
+        if (ret == null) {
+          if (!ClassDefiner.isHiddenClassSupported(targetClass)) {
+            checkScopeAccess();
+          }
+          ret = scope.defineClass(targetClass, className,
+                                  generateBytecode(className, classLoader, generator), getProtectionDomain());
+        }
+        return ret;
+      }
 
-      return defineClass(b, getClassName(), classLoader, getProtectionDomain());
+      try {
+        // already generated
+        return (Class<T>) Class.forName(className, false, classLoader);
+      }
+      catch (ClassNotFoundException e) {
+        final byte[] b = generateBytecode(className, classLoader, generator);
+        try {
+          return ClassDefiner.defineClass(targetClass, className, b, classLoader, getProtectionDomain());
+        }
+        catch (LinkageError | InvocationTargetException ex) {
+          // another thread defined it in the meantime: duplicate class definition
+          try {
+            return (Class<T>) Class.forName(className, false, classLoader);
+          }
+          catch (ClassNotFoundException notDefined) {
+            throw ex;
+          }
+        }
+      }
     }
     catch (RuntimeException | Error e) {
       throw e;
@@ -130,71 +192,544 @@ public class MethodInvokerGenerator {
     }
   }
 
+  protected byte[] generateBytecode(ClassLoader classLoader) {
+    return generateBytecode(getClassName(), classLoader, this::generateClass);
+  }
+
+  protected byte[] generateBytecode(String className, ClassLoader classLoader, Consumer<ClassVisitor> generator) {
+    DefaultClassWriter classWriter = new DefaultClassWriter(className, classLoader);
+    generator.accept(classWriter);
+    return classWriter.toByteArray();
+  }
+
   public void generateClass(ClassVisitor cv) {
-    cv.visit(Opcodes.V1_8, ACC_PUBLIC | ACC_FINAL, getClassName().replace('.', '/'), null, superType, interfaces);
+    cv.visit(ClassDefiner.getClassVersion(), ACC_PUBLIC | ACC_FINAL, getClassName().replace('.', '/'), null, getSuperType(), getInterfaces());
     cv.visitSource(SOURCE_FILE, null);
 
-    emptyConstructor(cv);
+    generateConstructor(cv);
+    generateInvoke(cv, ACC_PUBLIC | ACC_FINAL, "invoke");
 
-    MethodVisitor methodVisitor = cv.visitMethod(ACC_PUBLIC | ACC_FINAL, "invoke", invokeDescriptor, null, null);
+    cv.visitEnd(); //end class
+  }
+
+  /**
+   * Generate a method with the signature and the body of
+   * {@link Invoker#invoke(Object, Object[])}
+   *
+   * @param cv
+   *            {@link ClassVisitor}
+   * @param access
+   *            access flags of the method
+   * @param name
+   *            name of the method
+   */
+  protected void generateInvoke(final ClassVisitor cv, final int access, final String name) {
+    MethodVisitor methodVisitor = cv.visitMethod(access, name, invokeDescriptor, null, null);
 
     final int modifiers = targetMethod.getModifiers();
     if (Modifier.isPrivate(modifiers)) {
       throw new InvokerCreateException("Can't access to a private method");
     }
-    if (!Modifier.isStatic(modifiers)) {
-      methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
-      checkcast(methodVisitor, targetClass);
-      // methodVisitor.visitInsn(Opcodes.DUP);
+    if (checkArguments) {
+      checkArguments(methodVisitor);
+    }
+
+    if (hooks.isEmpty()) {
+      invokeTarget(methodVisitor);
+      returnValue(methodVisitor);
+    }
+    else {
+      invokeWithHooks(methodVisitor);
+    }
+
+    // end method, generated invoke is never abstract even if target method is
+    methodVisitor.visitMaxs(0, 0);
+  }
+
+  /**
+   * Load target object and parameters then invoke target method, leaves the
+   * unboxed return value on the stack
+   *
+   * @param mv
+   *            Target {@link MethodVisitor}
+   */
+  protected void invokeTarget(final MethodVisitor mv) {
+    if (!Modifier.isStatic(targetMethod.getModifiers())) {
+      mv.visitVarInsn(Opcodes.ALOAD, 1);
+      checkcast(mv, targetClass);
+      // mv.visitInsn(Opcodes.DUP);
     }
 
     if (targetMethod.getParameterCount() != 0) {
-      resolveParameter(methodVisitor);
+      resolveParameter(mv);
     }
 
-    invokeTargetMethod(methodVisitor);
+    invokeTargetMethod(mv);
+  }
 
-    returnValue(methodVisitor);
+  /**
+   * Inline hooks around target method invocation.
+   * <p>
+   * Local variables: 3 holds the boxed result, 4 the exception of an around
+   * hook, and 5 + i the context of the i-th around hook
+   *
+   * @param mv
+   *            Target {@link MethodVisitor}
+   */
+  protected void invokeWithHooks(final MethodVisitor mv) {
+    final int size = hooks.size();
+    final Label[][] tryCatchLabels = new Label[size][];
+    // inner handlers must precede outer ones in the exception table
+    for (int i = size - 1; i >= 0; i--) {
+      if (hooks.get(i).getKind() == InvocationHook.Kind.AROUND) {
+        final Label[] labels = { new Label(), new Label(), new Label() };
+        mv.visitTryCatchBlock(labels[0], labels[1], labels[2], "java/lang/Throwable");
+        tryCatchLabels[i] = labels;
+      }
+    }
 
-    // end method
-    if (!Modifier.isAbstract(modifiers)) {
-      methodVisitor.visitMaxs(0, 0);
+    invokeWithHooks(mv, 0, tryCatchLabels);
+
+    mv.visitVarInsn(Opcodes.ALOAD, 3);
+    mv.visitInsn(Opcodes.ARETURN);
+  }
+
+  private void invokeWithHooks(final MethodVisitor mv, final int index, final Label[][] tryCatchLabels) {
+    if (index == hooks.size()) {
+      invokeTarget(mv);
+      box(mv, targetMethod.getReturnType());
+      mv.visitVarInsn(Opcodes.ASTORE, 3);
+      return;
     }
-    cv.visitEnd(); //end class
+
+    final InvocationHook hook = hooks.get(index);
+    final Method method = hook.getMethod();
+    final String owner = Type.getInternalName(method.getDeclaringClass());
+
+    switch (hook.getKind()) {
+      case BEFORE: {
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, method.getName(), beforeHookDescriptor, isInterface(method));
+        invokeWithHooks(mv, index + 1, tryCatchLabels);
+        break;
+      }
+      case AFTER: {
+        invokeWithHooks(mv, index + 1, tryCatchLabels);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, method.getName(), afterHookDescriptor, isInterface(method));
+        mv.visitVarInsn(Opcodes.ASTORE, 3);
+        break;
+      }
+      case AROUND: {
+        final Method exit = hook.getExitMethod();
+        final String exitOwner = Type.getInternalName(exit.getDeclaringClass());
+        final Label[] labels = tryCatchLabels[index];
+        final Label next = new Label();
+        final int context = 5 + index;
+
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, method.getName(), enterHookDescriptor, isInterface(method));
+        mv.visitVarInsn(Opcodes.ASTORE, context);
+
+        mv.visitLabel(labels[0]);
+        invokeWithHooks(mv, index + 1, tryCatchLabels);
+        mv.visitLabel(labels[1]);
+
+        // finally: returned normally
+        mv.visitVarInsn(Opcodes.ALOAD, context);
+        mv.visitInsn(Opcodes.ACONST_NULL);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, exitOwner, exit.getName(), exitHookDescriptor, isInterface(exit));
+        mv.visitJumpInsn(Opcodes.GOTO, next);
+
+        // finally: exception thrown
+        mv.visitLabel(labels[2]);
+        mv.visitVarInsn(Opcodes.ASTORE, 4);
+        mv.visitVarInsn(Opcodes.ALOAD, context);
+        mv.visitVarInsn(Opcodes.ALOAD, 4);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, exitOwner, exit.getName(), exitHookDescriptor, isInterface(exit));
+        mv.visitVarInsn(Opcodes.ALOAD, 4);
+        mv.visitInsn(Opcodes.ATHROW);
+
+        mv.visitLabel(next);
+        break;
+      }
+    }
+  }
+
+  private static boolean isInterface(Method method) {
+    return method.getDeclaringClass().isInterface();
   }
 
   /**
-   * Get sub class name
+   * Get sub class name.
+   * <p>
+   * The name is made of target class name, target method name, parameter
+   * descriptors and generation options, escaped so that different methods or
+   * options never get the same name: a class already defined with this name
+   * is reused.
    *
    * @return sub class name
    */
   protected String getClassName() {
     if (className == null) {
       StringBuilder builder = new StringBuilder(targetClass.getName());
-      builder.append('$').append(targetMethod.getName());
+      builder.append('$');
+      escape(builder, targetMethod.getName());
 
       if (targetMethod.getParameterCount() != 0) {
-
+        builder.append('$');
         for (final Class<?> parameterType : targetMethod.getParameterTypes()) {
-          builder.append('$');
-          if (parameterType.isArray()) {
-            builder.append("A$");
-            final String simpleName = parameterType.getSimpleName();
-            builder.append(simpleName.substring(0, simpleName.length() - 2));
-          }
-          else {
-            builder.append(parameterType.getSimpleName());
-          }
+          escape(builder, Type.getDescriptor(parameterType));
         }
       }
+      appendClassNameSuffix(builder);
       this.className = builder.toString();
     }
     return className;
   }
 
+  /**
+   * Escape an internal name into a class name part without {@code '$'}, like
+   * JNI method names: {@code '/'} -> {@code '_'}, {@code '_'} -> {@code "_1"},
+   * {@code ';'} -> {@code "_2"}, {@code '['} -> {@code "_3"},
+   * {@code '$'} -> {@code "_4"}
+   */
+  protected static void escape(StringBuilder builder, String name) {
+    for (int i = 0; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      switch (c) { //@off
+        case '/': builder.append('_');    break;
+        case '_': builder.append("_1");   break;
+        case ';': builder.append("_2");   break;
+        case '[': builder.append("_3");   break;
+        case '$': builder.append("_4");   break;
+        default:  builder.append(c);
+      } //@on
+    }
+  }
+
+  /**
+   * Append generation options to the sub class name, so that differently
+   * generated classes of the same method do not clash
+   *
+   * @param builder
+   *            class name builder
+   */
+  protected void appendClassNameSuffix(StringBuilder builder) {
+    if (checkArguments) {
+      builder.append("$checked");
+    }
+    if (!hooks.isEmpty()) {
+      builder.append("$hooked");
+      for (final InvocationHook hook : hooks) {
+        switch (hook.getKind()) { //@off
+          case BEFORE: appendHook(builder, 'B', hook.getMethod()); break;
+          case AFTER:  appendHook(builder, 'A', hook.getMethod()); break;
+          case AROUND: appendHook(builder, 'R', hook.getMethod());
+                       appendHook(builder, 'E', hook.getExitMethod()); break;
+        } //@on
+      }
+    }
+  }
+
+  /**
+   * Hook descriptors are fixed by kind, so kind, owner and name identify a
+   * hook method
+   */
+  private static void appendHook(StringBuilder builder, char kind, Method method) {
+    builder.append('$').append(kind);
+    escape(builder, Type.getInternalName(method.getDeclaringClass()) + '/' + method.getName());
+  }
+
+  /**
+   * Get internal name of the generated class's super class
+   *
+   * @return internal name of super class
+   */
+  protected String getSuperType() {
+    return superType;
+  }
+
+  /**
+   * Get internal names of the generated class's interfaces
+   *
+   * @return internal names of interfaces
+   */
+  protected String[] getInterfaces() {
+    return interfaces;
+  }
+
+  /**
+   * Generate the constructors of the sub class
+   *
+   * @param cv
+   *            {@link ClassWriter}
+   */
+  protected void generateConstructor(ClassVisitor cv) {
+    emptyConstructor(cv, getSuperType());
+  }
+
+  /**
+   * Add a hook compiled into the generated {@code invoke} method, the first
+   * added hook is the outermost one
+   *
+   * @param hook
+   *            {@link InvocationHook}
+   */
+  public void addHook(InvocationHook hook) {
+    checkHookAccess(hook.getMethod());
+    if (hook.getExitMethod() != null) {
+      checkHookAccess(hook.getExitMethod());
+    }
+    hooks.add(hook);
+  }
+
+  public void addHooks(List<InvocationHook> hooks) {
+    for (final InvocationHook hook : hooks) {
+      addHook(hook);
+    }
+  }
+
+  public List<InvocationHook> getHooks() {
+    return Collections.unmodifiableList(hooks);
+  }
+
+  /**
+   * The generated class lives in target class's package, so a hook must be
+   * public or in the same package
+   */
+  private void checkHookAccess(Method method) {
+    final Class<?> declaringClass = method.getDeclaringClass();
+    if (!(Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(declaringClass.getModifiers()))
+        && !getPackageName(declaringClass).equals(getPackageName(targetClass))) {
+      throw new InvokerCreateException("Hook method " + method + " is not accessible from package "
+                                               + getPackageName(targetClass));
+    }
+  }
+
+  /**
+   * Classes of a {@link InvokerScope} are defined in a child class loader, in
+   * another runtime package than target class, so only public members are
+   * accessible
+   */
+  protected void checkScopeAccess() {
+    checkPublic(targetClass);
+    if (!Modifier.isPublic(targetMethod.getModifiers())) {
+      throw new InvokerCreateException("Method " + targetMethod + " must be public to be invoked in a scope");
+    }
+    for (final Class<?> parameterType : targetMethod.getParameterTypes()) {
+      checkPublic(parameterType);
+    }
+    for (final InvocationHook hook : hooks) {
+      checkPublic(hook.getMethod().getDeclaringClass());
+      if (!Modifier.isPublic(hook.getMethod().getModifiers())
+          || (hook.getExitMethod() != null && !Modifier.isPublic(hook.getExitMethod().getModifiers()))) {
+        throw new InvokerCreateException("Hook " + hook + " must be public to be invoked in a scope");
+      }
+    }
+  }
+
+  private static void checkPublic(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (!type.isPrimitive() && !Modifier.isPublic(type.getModifiers())) {
+      throw new InvokerCreateException("Class " + type.getName() + " must be public to be invoked in a scope");
+    }
+  }
+
+  /**
+   * Set the {@link InvokerScope} to define the generated class in, instead of
+   * target class's class loader
+   *
+   * @param scope
+   *            {@link InvokerScope}, may be {@code null}
+   */
+  public void setScope(InvokerScope scope) {
+    this.scope = scope;
+  }
+
+  public InvokerScope getScope() {
+    return scope;
+  }
+
+  private static String getPackageName(Class<?> type) {
+    final String name = type.getName();
+    final int index = name.lastIndexOf('.');
+    return index == -1 ? "" : name.substring(0, index);
+  }
+
+  public Method getTargetMethod() {
+    return targetMethod;
+  }
+
+  public Class<?> getTargetClass() {
+    return targetClass;
+  }
+
+  /**
+   * Whether the generated {@code invoke} validates the target object and the
+   * arguments before calling the target method
+   *
+   * @return if argument checks will be generated
+   */
+  public boolean isCheckArguments() {
+    return checkArguments;
+  }
+
+  /**
+   * Enable or disable generated argument checks. Defaults to the
+   * {@link #CHECK_ARGUMENTS_PROPERTY} system property.
+   * <p>
+   * When enabled, the generated {@code invoke} checks the target object, the
+   * argument count, {@code null} values for primitive parameters and the
+   * argument types, and throws an {@link IllegalArgumentException} whose message
+   * is computed at generation time. When disabled no check is generated at all.
+   *
+   * @param checkArguments
+   *            if argument checks should be generated
+   */
+  public void setCheckArguments(boolean checkArguments) {
+    this.checkArguments = checkArguments;
+  }
+
+  /**
+   * Generate target object and arguments checks
+   *
+   * @param mv
+   *            Target {@link MethodVisitor}
+   */
+  protected void checkArguments(final MethodVisitor mv) {
+    if (!Modifier.isStatic(targetMethod.getModifiers())) {
+      checkTarget(mv, 1);
+    }
+    checkArguments(mv, 2, 0, targetMethod.getParameterCount());
+  }
+
+  /**
+   * Generate target object check
+   *
+   * @param mv
+   *            Target {@link MethodVisitor}
+   * @param local
+   *            local variable index of target object
+   */
+  protected void checkTarget(final MethodVisitor mv, final int local) {
+    final Label targetOk = new Label();
+    mv.visitVarInsn(Opcodes.ALOAD, local);
+    instanceOf(mv, Type.getType(targetClass));
+    mv.visitJumpInsn(Opcodes.IFNE, targetOk);
+    throwIllegalArgument(mv, "Target object of method " + getMethodName()
+            + " must be a non-null instance of " + targetClass.getName());
+    mv.visitLabel(targetOk);
+  }
+
+  /**
+   * Generate checks of an arguments array holding target method parameters
+   * from {@code from} (inclusive) to {@code to} (exclusive)
+   *
+   * @param mv
+   *            Target {@link MethodVisitor}
+   * @param local
+   *            local variable index of arguments array
+   * @param from
+   *            index of the first parameter in the array
+   * @param to
+   *            index after the last parameter in the array
+   */
+  protected void checkArguments(final MethodVisitor mv, final int local, final int from, final int to) {
+    final String methodName = getMethodName();
+    final Class<?>[] parameterTypes = targetMethod.getParameterTypes();
+    final int count = to - from;
+    final String countMessage = from == 0
+                                ? "Method " + methodName + " takes " + count + " argument(s)"
+                                : "Method " + methodName + " takes " + count + " argument(s) after " + from + " bound";
+
+    final Label countOk = new Label();
+    if (count == 0) {
+      mv.visitVarInsn(Opcodes.ALOAD, local);
+      mv.visitJumpInsn(Opcodes.IFNULL, countOk);
+      mv.visitVarInsn(Opcodes.ALOAD, local);
+      mv.visitInsn(Opcodes.ARRAYLENGTH);
+      mv.visitJumpInsn(Opcodes.IFEQ, countOk);
+      throwIllegalArgument(mv, countMessage);
+      mv.visitLabel(countOk);
+      return;
+    }
+
+    final Label countFailed = new Label();
+    mv.visitVarInsn(Opcodes.ALOAD, local);
+    mv.visitJumpInsn(Opcodes.IFNULL, countFailed);
+    mv.visitVarInsn(Opcodes.ALOAD, local);
+    mv.visitInsn(Opcodes.ARRAYLENGTH);
+    push(mv, count);
+    mv.visitJumpInsn(Opcodes.IF_ICMPEQ, countOk);
+    mv.visitLabel(countFailed);
+    throwIllegalArgument(mv, countMessage);
+    mv.visitLabel(countOk);
+
+    for (int i = from; i < to; i++) {
+      final Class<?> parameterClass = parameterTypes[i];
+      if (parameterClass.equals(Object.class)) {
+        continue;
+      }
+      final Label argumentOk = new Label();
+      final String argument = "Argument [" + i + "] of method " + methodName;
+      if (parameterClass.isPrimitive()) {
+        final Type boxedType = getBoxedType(Type.getType(parameterClass));
+        mv.visitVarInsn(Opcodes.ALOAD, local);
+        aaload(mv, i - from);
+        instanceOf(mv, boxedType);
+        mv.visitJumpInsn(Opcodes.IFNE, argumentOk);
+        throwIllegalArgument(mv, argument + " must be a non-null " + boxedType.getClassName()
+                + " for primitive parameter type " + parameterClass.getName());
+      }
+      else {
+        mv.visitVarInsn(Opcodes.ALOAD, local);
+        aaload(mv, i - from);
+        mv.visitJumpInsn(Opcodes.IFNULL, argumentOk);
+        mv.visitVarInsn(Opcodes.ALOAD, local);
+        aaload(mv, i - from);
+        instanceOf(mv, Type.getType(parameterClass));
+        mv.visitJumpInsn(Opcodes.IFNE, argumentOk);
+        throwIllegalArgument(mv, argument + " must be assignable to " + parameterClass.getTypeName());
+      }
+      mv.visitLabel(argumentOk);
+    }
+  }
+
+  private String getMethodName() {
+    return targetClass.getName() + "#" + targetMethod.getName();
+  }
+
   // utils
   // -------------------------------------------------
 
+  protected static void instanceOf(final MethodVisitor mv, final Type type) {
+    mv.visitTypeInsn(Opcodes.INSTANCEOF, type.getInternalName());
+  }
+
+  /**
+   * Throw a {@link IllegalArgumentException} with a message computed at
+   * generation time
+   *
+   * @param mv
+   *            Target {@link MethodVisitor}
+   * @param message
+   *            Exception message
+   */
+  protected static void throwIllegalArgument(final MethodVisitor mv, final String message) {
+    mv.visitTypeInsn(Opcodes.NEW, illegalArgumentType);
+    mv.visitInsn(Opcodes.DUP);
+    mv.visitLdcInsn(message);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, illegalArgumentType, "<init>", "(Ljava/lang/String;)V", false);
+    mv.visitInsn(Opcodes.ATHROW);
+  }
+
   /**
    * create a default {@link Constructor}
    *
@@ -202,6 +737,18 @@ public class MethodInvokerGenerator {
    *            {@link ClassWriter}
    */
   protected static void emptyConstructor(ClassVisitor cv) {
+    emptyConstructor(cv, superType);
+  }
+
+  /**
+   * create a default {@link Constructor}
+   *
+   * @param cv
+   *            {@link ClassWriter}
+   * @param superType
+   *            internal name of super class
+   */
+  protected static void emptyConstructor(ClassVisitor cv, String superType) {
 
     MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
 
@@ -218,19 +765,38 @@ public class MethodInvokerGenerator {
    *            Target {@link MethodVisitor}
    */
   protected void resolveParameter(MethodVisitor methodVisitor) {
+    resolveParameter(methodVisitor, 2, 0);
+  }
+
+  /**
+   * Resolve target method parameters from {@code from} to the last one
+   *
+   * @param methodVisitor
+   *            Target {@link MethodVisitor}
+   * @param local
+   *            local variable index of arguments array
+   * @param from
+   *            index of the first parameter in the array
+   */
+  protected void resolveParameter(MethodVisitor methodVisitor, int local, int from) {
 
     final Class<?>[] parameterTypes = targetMethod.getParameterTypes();
-    for (int i = 0; i < parameterTypes.length; i++) {
-      methodVisitor.visitVarInsn(Opcodes.ALOAD, 2);
-      aaload(methodVisitor, i);
+    for (int i = from; i < parameterTypes.length; i++) {
+      methodVisitor.visitVarInsn(Opcodes.ALOAD, local);
+      aaload(methodVisitor, i - from);
+      convertArgument(methodVisitor, parameterTypes[i]);
+    }
+  }
 
-      final Class<?> parameterClass = parameterTypes[i];
-      if (parameterClass.isPrimitive()) {
-        unbox(methodVisitor, parameterClass);
-      }
-      else {
-        checkcast(methodVisitor, parameterClass);
-      }
+  /**
+   * Unbox or cast the {@code Object} on the top of the stack to parameter type
+   */
+  protected void convertArgument(MethodVisitor methodVisitor, final Class<?> parameterClass) {
+    if (parameterClass.isPrimitive()) {
+      unbox(methodVisitor, parameterClass);
+    }
+    else {
+      checkcast(methodVisitor, parameterClass);
     }
   }
 
@@ -283,10 +849,18 @@ public class MethodInvokerGenerator {
 
   protected void invokeTargetMethod(final MethodVisitor mv) {
 
-    mv.visitMethodInsn(Modifier.isStatic(targetMethod.getModifiers()) ? Opcodes.INVOKESTATIC : Opcodes.INVOKEVIRTUAL,
+    final boolean isInterface = targetClass.isInterface();
+    final int opcode;
+    if (Modifier.isStatic(targetMethod.getModifiers())) {
+      opcode = Opcodes.INVOKESTATIC;
+    }
+    else {
+      opcode = isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+    }
+    mv.visitMethodInsn(opcode,
                        Type.getType(targetClass).getInternalName(),
                        targetMethod.getName(),
-                       Type.getMethodDescriptor(targetMethod), false);
+                       Type.getMethodDescriptor(targetMethod), isInterface);
   }
 
   protected void checkcast(final MethodVisitor methodVisitor, final Class<?> targetClass) {
@@ -0,0 +1,89 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+/**
+ * A serializable method reference, such as {@code Bean::getName}, used to
+ * create invokers without looking up methods by name.
+ * <p>
+ * The target {@link Method} is resolved once per method reference expression
+ * from its {@link java.lang.invoke.SerializedLambda} and cached.
+ *
+ * <pre>
+ * MethodInvoker getName = MethodInvoker.create(Bean::getName);
+ * MethodInvoker setName = MethodInvoker.create(Bean::setName);
+ * </pre>
+ *
+ * @author TODAY <br>
+ *         2020-09-06 15:20
+ */
+public interface MethodReference extends Serializable {
+
+  /**
+   * Get the referenced method
+   *
+   * @return the referenced method
+   * @throws InvokerCreateException
+   *             if this is not a method reference, or it can not be resolved
+   */
+  default Method getMethod() {
+    return SerializedLambdaResolver.getMethod(this);
+  }
+
+  /** A static method without parameters */
+  @FunctionalInterface
+  interface Supplier<R> extends MethodReference {
+    R get() throws Throwable;
+  }
+
+  /** A static void method without parameters */
+  @FunctionalInterface
+  interface Runnable extends MethodReference {
+    void run() throws Throwable;
+  }
+
+  /** An instance method without parameters, or a static method with one */
+  @FunctionalInterface
+  interface Function<T, R> extends MethodReference {
+    R apply(T t) throws Throwable;
+  }
+
+  /** An instance void method without parameters, or a static one with one */
+  @FunctionalInterface
+  interface Consumer<T> extends MethodReference {
+    void accept(T t) throws Throwable;
+  }
+
+  /** An instance method with one parameter, or a static method with two */
+  @FunctionalInterface
+  interface BiFunction<T, U, R> extends MethodReference {
+    R apply(T t, U u) throws Throwable;
+  }
+
+  /** An instance void method with one parameter, or a static one with two */
+  @FunctionalInterface
+  interface BiConsumer<T, U> extends MethodReference {
+    void accept(T t, U u) throws Throwable;
+  }
+
+}
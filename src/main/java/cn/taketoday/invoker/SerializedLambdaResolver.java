@@ -0,0 +1,112 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+
+/**
+ * Resolve {@link MethodReference} to {@link Method}
+ *
+ * @author TODAY <br>
+ *         2020-09-06 15:42
+ */
+final class SerializedLambdaResolver {
+
+  /** Cache resolved method on the lambda class, that will not prevent unloading */
+  private static final ClassValue<Method[]> methods = new ClassValue<Method[]>() {
+    @Override
+    protected Method[] computeValue(Class<?> type) {
+      return new Method[1];
+    }
+  };
+
+  static Method getMethod(MethodReference reference) {
+    final Method[] holder = methods.get(reference.getClass());
+    Method ret = holder[0];
+    if (ret == null) {
+      holder[0] = ret = resolve(reference);
+    }
+    return ret;
+  }
+
+  static Method resolve(MethodReference reference) {
+    final Class<?> lambdaClass = reference.getClass();
+    final SerializedLambda lambda;
+    try {
+      final Method writeReplace = lambdaClass.getDeclaredMethod("writeReplace");
+      writeReplace.setAccessible(true);
+      lambda = (SerializedLambda) writeReplace.invoke(reference);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      throw new InvokerCreateException("Can't get SerializedLambda of " + lambdaClass.getName(), e);
+    }
+
+    final String name = lambda.getImplMethodName();
+    final int kind = lambda.getImplMethodKind();
+    if (name.startsWith("lambda$") || kind == MethodHandleInfo.REF_newInvokeSpecial) {
+      throw new InvokerCreateException(lambdaClass.getName() + " is not a method reference");
+    }
+
+    final ClassLoader classLoader = lambdaClass.getClassLoader();
+    try {
+      final Class<?> implClass = Class.forName(lambda.getImplClass().replace('/', '.'), false, classLoader);
+      final Type[] argumentTypes = Type.getArgumentTypes(lambda.getImplMethodSignature());
+      final Class<?>[] parameterTypes = new Class<?>[argumentTypes.length];
+      for (int i = 0; i < argumentTypes.length; i++) {
+        parameterTypes[i] = toClass(argumentTypes[i], classLoader);
+      }
+      return findMethod(implClass, name, parameterTypes);
+    }
+    catch (ReflectiveOperationException e) {
+      throw new InvokerCreateException("Can't resolve method reference " + lambdaClass.getName(), e);
+    }
+  }
+
+  static Method findMethod(Class<?> type, String name, Class<?>[] parameterTypes) throws NoSuchMethodException {
+    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+      try {
+        return current.getDeclaredMethod(name, parameterTypes);
+      }
+      catch (NoSuchMethodException ignored) {}
+    }
+    // interface methods
+    return type.getMethod(name, parameterTypes);
+  }
+
+  static Class<?> toClass(Type type, ClassLoader classLoader) throws ClassNotFoundException {
+    switch (type.getSort()) { //@off
+      case Type.BOOLEAN : return boolean.class;
+      case Type.CHAR :    return char.class;
+      case Type.BYTE :    return byte.class;
+      case Type.SHORT :   return short.class;
+      case Type.INT :     return int.class;
+      case Type.FLOAT :   return float.class;
+      case Type.LONG :    return long.class;
+      case Type.DOUBLE :  return double.class;
+      case Type.ARRAY :   return Class.forName(type.getDescriptor().replace('/', '.'), false, classLoader);
+      default:            return Class.forName(type.getClassName(), false, classLoader);
+    } //@on
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package cn.taketoday.invoker;
+
+import org.objectweb.asm.Opcodes;
+
+import java.lang.invoke.MethodHandles;
+import java.security.ProtectionDomain;
+
+/**
+ * Defines generated classes with {@link MethodHandles.Lookup}, JDK 17+.
+ * <p>
+ * No {@code setAccessible} on {@code ClassLoader.defineClass} is required, and
+ * a {@link InvokerScope} defines hidden classes that can be unloaded on their
+ * own, while the JIT trusts their final instance fields as constants.
+ *
+ * @author TODAY <br>
+ *         2020-09-02 21:30
+ */
+final class ClassDefiner {
+
+  /** Newest class file version supported by ASM 9.8 */
+  private static final int MAX_FEATURE = 25;
+
+  private static final int CLASS_VERSION =
+          Opcodes.V1_8 + Math.min(Runtime.version().feature(), MAX_FEATURE) - 8;
+
+  static int getClassVersion() {
+    return CLASS_VERSION;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> Class<T> defineClass(Class<?> targetClass, String className, byte[] b,
+                                  ClassLoader loader, ProtectionDomain protection) throws Exception {
+    final MethodHandles.Lookup lookup = privateLookup(targetClass);
+    if (lookup == null || targetClass.getClassLoader() != loader) {
+      return MethodInvokerGenerator.defineClass(b, className, loader, protection);
+    }
+    final Class<?> ret = lookup.defineClass(b);
+    // Force static initializers to run.
+    Class.forName(className, true, loader);
+    return (Class<T>) ret;
+  }
+
+  static boolean isHiddenClassSupported(Class<?> targetClass) {
+    return privateLookup(targetClass) != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> Class<T> defineHiddenClass(Class<?> targetClass, byte[] b) {
+    final MethodHandles.Lookup lookup = privateLookup(targetClass);
+    if (lookup == null) {
+      return null;
+    }
+    try {
+      return (Class<T>) lookup.defineHiddenClass(b, true).lookupClass();
+    }
+    catch (IllegalAccessException e) {
+      throw new InvokerCreateException(e);
+    }
+  }
+
+  /**
+   * Get a lookup with full access to target class's package, {@code null} if
+   * the package is not open to this library
+   */
+  private static MethodHandles.Lookup privateLookup(Class<?> targetClass) {
+    try {
+      return MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup());
+    }
+    catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+}
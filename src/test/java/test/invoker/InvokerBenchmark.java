@@ -0,0 +1,153 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import java.lang.reflect.Method;
+
+import cn.taketoday.invoker.InvokerScope;
+import cn.taketoday.invoker.MethodInvoker;
+
+/**
+ * Simple throughput comparison of reflection and generated invokers.
+ * <p>
+ * Every case has its own loop method, so each measured call site only sees
+ * one receiver class and stays monomorphic whatever ran before it. Each
+ * iteration changes the first argument and adds up the results, so that the
+ * JIT can neither hoist the call out of the loop nor drop it.
+ * <p>
+ * Run it against the packaged multi-release jar on JDK 8 and JDK 17+ to
+ * compare the baseline classes with the {@code META-INF/versions/17} ones:
+ *
+ * <pre>
+ * java -cp today-method-invoker.jar:asm.jar:test-classes test.invoker.InvokerBenchmark
+ * </pre>
+ *
+ * @author TODAY <br>
+ *         2020-09-03 20:40
+ */
+public class InvokerBenchmark {
+
+  static final int WARMUP = 5;
+  static final int ROUNDS = 10;
+  static final int ITERATIONS = 10_000_000;
+  static final Integer[] VALUES = new Integer[64];
+
+  static {
+    for (int i = 0; i < VALUES.length; i++) {
+      VALUES[i] = i;
+    }
+  }
+
+  static Object sink;
+
+  static Method method;
+  static MethodInvoker invoker;
+  static MethodInvoker scoped;
+  static Bean bean;
+  static Object[] arguments;
+
+  public static void main(String[] args) throws Exception {
+    System.out.println("java.version: " + System.getProperty("java.version"));
+
+    method = Bean.class.getDeclaredMethod("add", int.class, int.class);
+    invoker = MethodInvoker.create(method);
+    scoped = new InvokerScope(Bean.class.getClassLoader()).create(method);
+    bean = new Bean();
+    arguments = new Object[] { 1, 2 };
+
+    run("direct", InvokerBenchmark::direct);
+    run("reflection", InvokerBenchmark::reflection);
+    run("invoker", InvokerBenchmark::invoker);
+    run("scoped invoker", InvokerBenchmark::scoped);
+  }
+
+  static void run(String name, Loop loop) throws Exception {
+    for (int i = 0; i < WARMUP; i++) {
+      loop.run();
+    }
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      best = Math.min(best, loop.run());
+    }
+    System.out.printf("%-16s %8.2f ns/op%n", name, (double) best / ITERATIONS);
+  }
+
+  static long direct() {
+    int sum = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      arguments[0] = VALUES[i & 63];
+      sum += bean.add((Integer) arguments[0], (Integer) arguments[1]);
+    }
+    final long time = System.nanoTime() - start;
+    sink = sum;
+    return time;
+  }
+
+  static long reflection() throws Exception {
+    int sum = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      arguments[0] = VALUES[i & 63];
+      sum += (Integer) method.invoke(bean, arguments);
+    }
+    final long time = System.nanoTime() - start;
+    sink = sum;
+    return time;
+  }
+
+  static long invoker() {
+    int sum = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      arguments[0] = VALUES[i & 63];
+      sum += (Integer) invoker.invoke(bean, arguments);
+    }
+    final long time = System.nanoTime() - start;
+    sink = sum;
+    return time;
+  }
+
+  static long scoped() {
+    int sum = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      arguments[0] = VALUES[i & 63];
+      sum += (Integer) scoped.invoke(bean, arguments);
+    }
+    final long time = System.nanoTime() - start;
+    sink = sum;
+    return time;
+  }
+
+  /**
+   * One call per round, the iterations are in the loop method
+   */
+  interface Loop {
+    long run() throws Exception;
+  }
+
+  public static class Bean {
+
+    public int add(int a, int b) {
+      return a + b;
+    }
+  }
+}
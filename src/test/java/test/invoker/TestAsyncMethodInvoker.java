@@ -0,0 +1,136 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import cn.taketoday.invoker.AsyncMethodInvoker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author TODAY <br>
+ *         2020-08-21 22:30
+ */
+public class TestAsyncMethodInvoker {
+
+  @Test
+  public void testInvokeAsync() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final AsyncMethodInvoker invoker =
+              AsyncMethodInvoker.create(Bean.class.getDeclaredMethod("hello", String.class), executor);
+
+      assertEquals("hello TODAY", invoker.invokeAsync(new Bean(), new Object[] { "TODAY" }).get());
+      // synchronous invoke still works
+      assertEquals("hello TODAY", invoker.invoke(new Bean(), new Object[] { "TODAY" }));
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCompletionStage() throws Exception {
+    final AsyncMethodInvoker invoker = AsyncMethodInvoker.create(Bean.class, "stage", int.class);
+
+    final CompletableFuture<Object> future = invoker.invokeAsync(null, new Object[] { 1 });
+    assertEquals(2, future.get());
+  }
+
+  @Test
+  public void testException() throws Exception {
+    final AsyncMethodInvoker invoker = AsyncMethodInvoker.create(Bean.class, "error");
+    try {
+      invoker.invokeAsync(new Bean(), null).get();
+      fail("ExecutionException expected");
+    }
+    catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testRejected() throws Exception {
+    final AsyncMethodInvoker invoker = AsyncMethodInvoker.create(Bean.class.getDeclaredMethod("rejected"), r -> {
+      throw new RejectedExecutionException("rejected");
+    });
+
+    final CompletableFuture<Object> future = invoker.invokeAsync(new Bean(), null);
+    assertTrue(future.isCompletedExceptionally());
+    try {
+      future.get();
+      fail("ExecutionException expected");
+    }
+    catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+
+  @Test
+  public void testTaskPerMethod() throws Exception {
+    final AsyncMethodInvoker first = AsyncMethodInvoker.create(Bean.class, "first");
+    final AsyncMethodInvoker second = AsyncMethodInvoker.create(Bean.class, "second");
+
+    final CompletableFuture<Object> firstFuture = first.invokeAsync(new Bean(), null);
+    final CompletableFuture<Object> secondFuture = second.invokeAsync(new Bean(), null);
+
+    // each method runs in its own task class
+    assertNotSame(firstFuture.getClass(), secondFuture.getClass());
+    assertEquals(firstFuture.getClass(), first.invokeAsync(new Bean(), null).getClass());
+    assertEquals("first", firstFuture.get());
+    assertEquals("second", secondFuture.get());
+  }
+
+  public static class Bean {
+
+    public String hello(String name) {
+      return "hello " + name;
+    }
+
+    public static CompletionStage<Integer> stage(int i) {
+      return CompletableFuture.supplyAsync(() -> i + 1);
+    }
+
+    public void error() {
+      throw new IllegalStateException("error");
+    }
+
+    public void rejected() {}
+
+    public String first() {
+      return "first";
+    }
+
+    public String second() {
+      return "second";
+    }
+  }
+}
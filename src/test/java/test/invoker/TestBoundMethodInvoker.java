@@ -0,0 +1,118 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import cn.taketoday.invoker.BoundMethodInvoker;
+import cn.taketoday.invoker.BoundMethodInvokerGenerator;
+import cn.taketoday.invoker.InvokerScope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author TODAY <br>
+ *         2020-09-10 21:10
+ */
+public class TestBoundMethodInvoker {
+
+  @Test
+  public void testBound() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("hello", String.class, int.class);
+    final Bean bean = new Bean("TODAY");
+
+    final BoundMethodInvoker receiver = BoundMethodInvoker.create(method, bean);
+    assertEquals("TODAY: hello 1", receiver.call(new Object[] { "hello", 1 }));
+
+    final BoundMethodInvoker prefix = BoundMethodInvoker.create(method, bean, "hi");
+    assertEquals("TODAY: hi 2", prefix.call(new Object[] { 2 }));
+
+    final BoundMethodInvoker all = BoundMethodInvoker.create(method, bean, "hi", 3);
+    assertEquals("TODAY: hi 3", all.call());
+
+    // generated class is reused for other targets
+    final BoundMethodInvoker other = BoundMethodInvoker.create(method, new Bean("other"), "hi", 3);
+    assertSame(all.getClass(), other.getClass());
+    assertEquals("other: hi 3", other.call());
+  }
+
+  @Test
+  public void testScope() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("hello", String.class, int.class);
+    final InvokerScope scope = new InvokerScope(Bean.class.getClassLoader());
+
+    final BoundMethodInvoker invoker = scope.bind(method, new Bean("TODAY"), "hi");
+    assertEquals("TODAY: hi 1", invoker.call(new Object[] { 1 }));
+    assertEquals(1, scope.getClassCount());
+    assertSame(invoker.getClass(), scope.bind(method, new Bean("other"), "hi").getClass());
+    // not the class defined in target class loader
+    assertNotSame(BoundMethodInvoker.create(method, new Bean("TODAY"), "hi").getClass(), invoker.getClass());
+    scope.release();
+  }
+
+  @Test
+  public void testStatic() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("sum", int.class, int.class);
+    assertEquals(3, BoundMethodInvoker.create(method, null, 1, 2).call());
+    assertEquals(4, BoundMethodInvoker.create(method, null, 1).call(new Object[] { 3 }));
+  }
+
+  @Test
+  public void testCheckArguments() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("hello", String.class, int.class);
+    final BoundMethodInvokerGenerator generator = new BoundMethodInvokerGenerator(method, 1);
+    generator.setCheckArguments(true);
+
+    final BoundMethodInvoker invoker = generator.create(new Bean("TODAY"), "hi");
+    assertEquals("TODAY: hi 1", invoker.call(new Object[] { 1 }));
+    try {
+      invoker.call(new Object[] { null });
+      fail("IllegalArgumentException expected");
+    }
+    catch (IllegalArgumentException ignored) {}
+    try {
+      generator.create("not a bean", "hi");
+      fail("IllegalArgumentException expected");
+    }
+    catch (IllegalArgumentException ignored) {}
+  }
+
+  public static class Bean {
+
+    private final String name;
+
+    public Bean(String name) {
+      this.name = name;
+    }
+
+    public String hello(String greeting, int times) {
+      return name + ": " + greeting + " " + times;
+    }
+
+    public static int sum(int a, int b) {
+      return a + b;
+    }
+  }
+}
@@ -22,9 +22,21 @@ package test.invoker;
 import org.junit.Test;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cn.taketoday.invoker.Invoker;
 import cn.taketoday.invoker.MethodInvoker;
+import cn.taketoday.invoker.MethodInvokerGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 /**
  * @author TODAY <br>
@@ -37,6 +49,102 @@ public class TestHandlerInvoker {
     main();
   }
 
+  @Test
+  public void testCheckArguments() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("sum", int.class, Integer.class);
+    final MethodInvokerGenerator generator = new MethodInvokerGenerator(method);
+    generator.setCheckArguments(true);
+
+    final Invoker invoker = generator.create();
+    assertEquals(3, invoker.invoke(new Bean(), new Object[] { 1, 2 }));
+
+    final String methodName = Bean.class.getName() + "#sum";
+    assertIllegalArgument(invoker, null, new Object[] { 1, 2 },
+                          "Target object of method " + methodName + " must be a non-null instance of " + Bean.class.getName());
+    assertIllegalArgument(invoker, new Bean(), null,
+                          "Method " + methodName + " takes 2 argument(s)");
+    assertIllegalArgument(invoker, new Bean(), new Object[] { 1 },
+                          "Method " + methodName + " takes 2 argument(s)");
+    assertIllegalArgument(invoker, new Bean(), new Object[] { null, 2 },
+                          "Argument [0] of method " + methodName + " must be a non-null java.lang.Integer for primitive parameter type int");
+    assertIllegalArgument(invoker, new Bean(), new Object[] { 1L, 2 },
+                          "Argument [0] of method " + methodName + " must be a non-null java.lang.Integer for primitive parameter type int");
+    assertIllegalArgument(invoker, new Bean(), new Object[] { 1, "2" },
+                          "Argument [1] of method " + methodName + " must be assignable to java.lang.Integer");
+  }
+
+  @Test
+  public void testUncheckedArguments() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("sum", int.class, Integer.class);
+    final MethodInvokerGenerator generator = new MethodInvokerGenerator(method);
+    generator.setCheckArguments(false);
+
+    final Invoker invoker = generator.create();
+    assertEquals(3, invoker.invoke(new Bean(), new Object[] { 1, 2 }));
+
+    // no generated check: the JVM fails on its own
+    try {
+      invoker.invoke(new Bean(), new Object[] { 1 });
+      fail("ArrayIndexOutOfBoundsException expected");
+    }
+    catch (ArrayIndexOutOfBoundsException ignored) {}
+    try {
+      invoker.invoke(new Bean(), new Object[] { null, 2 });
+      fail("NullPointerException expected");
+    }
+    catch (NullPointerException ignored) {}
+  }
+
+  @Test
+  public void testSameSimpleNameParameters() throws Exception {
+    final Invoker first = MethodInvoker.create(Bean.class, "same", First.Param.class);
+    final Invoker second = MethodInvoker.create(Bean.class, "same", Second.Param.class);
+
+    assertNotSame(first.getClass(), second.getClass());
+    assertEquals("first", first.invoke(new Bean(), new Object[] { new First.Param() }));
+    assertEquals("second", second.invoke(new Bean(), new Object[] { new Second.Param() }));
+    // generated class is reused
+    assertSame(first.getClass(), MethodInvoker.create(Bean.class, "same", First.Param.class).getClass());
+  }
+
+  @Test
+  public void testConcurrentCreate() throws Exception {
+    final int threads = 16;
+    final Method method = Bean.class.getDeclaredMethod("concurrent");
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<Invoker>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return MethodInvoker.create(method);
+        }));
+      }
+      start.countDown();
+      // all threads get the same generated class, no duplicate class definition
+      final Class<?> invokerClass = futures.get(0).get().getClass();
+      for (final Future<Invoker> future : futures) {
+        final Invoker invoker = future.get();
+        assertSame(invokerClass, invoker.getClass());
+        assertEquals("concurrent", invoker.invoke(new Bean(), null));
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  static void assertIllegalArgument(Invoker invoker, Object obj, Object[] args, String message) {
+    try {
+      invoker.invoke(obj, args);
+      fail("IllegalArgumentException expected");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+
   public static void main(String... args) throws Exception {
 
     System.setProperty("cglib.debugLocation", "D:/debug");
@@ -77,5 +185,29 @@ public class TestHandlerInvoker {
     void test(Bean itself) {
       System.err.println("instance test :" + itself);
     }
+
+    public int sum(int a, Integer b) {
+      return a + (b == null ? 0 : b);
+    }
+
+    public String concurrent() {
+      return "concurrent";
+    }
+
+    public String same(First.Param param) {
+      return "first";
+    }
+
+    public String same(Second.Param param) {
+      return "second";
+    }
+  }
+
+  public static class First {
+    public static class Param {}
+  }
+
+  public static class Second {
+    public static class Param {}
   }
 }
@@ -0,0 +1,123 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cn.taketoday.invoker.InvocationHook;
+import cn.taketoday.invoker.InvokerCreateException;
+import cn.taketoday.invoker.MethodInvoker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author TODAY <br>
+ *         2020-08-23 11:05
+ */
+public class TestInvocationHook {
+
+  static final List<String> events = new ArrayList<>();
+
+  @Test
+  public void testHooks() throws Exception {
+    events.clear();
+    final MethodInvoker invoker = MethodInvoker.create(Bean.class.getDeclaredMethod("add", int.class, int.class),
+                                                       InvocationHook.around(TestInvocationHook.class, "enter", "exit"),
+                                                       InvocationHook.before(TestInvocationHook.class, "before"),
+                                                       InvocationHook.after(TestInvocationHook.class, "after"));
+
+    assertEquals(4, invoker.invoke(new Bean(), new Object[] { 1, 2 }));
+    assertEquals(Arrays.asList("enter", "before", "add", "after:3", "exit:null"), events);
+  }
+
+  @Test
+  public void testAroundException() throws Exception {
+    events.clear();
+    final MethodInvoker invoker = MethodInvoker.create(Bean.class.getDeclaredMethod("error"),
+                                                       InvocationHook.around(TestInvocationHook.class, "enter", "exit"),
+                                                       InvocationHook.around(TestInvocationHook.class, "enter", "exit"));
+    try {
+      invoker.invoke(new Bean(), null);
+      fail("IllegalStateException expected");
+    }
+    catch (IllegalStateException e) {
+      assertEquals(Arrays.asList("enter", "enter", "exit:error", "exit:error"), events);
+    }
+  }
+
+  @Test
+  public void testDifferentHooks() throws Exception {
+    events.clear();
+    final Method add = Bean.class.getDeclaredMethod("add", int.class, int.class);
+    final MethodInvoker before = MethodInvoker.create(add, InvocationHook.before(TestInvocationHook.class, "before"));
+    final MethodInvoker other = MethodInvoker.create(add, InvocationHook.before(TestInvocationHook.class, "otherBefore"));
+
+    assertNotSame(before.getClass(), other.getClass());
+    before.invoke(new Bean(), new Object[] { 1, 2 });
+    other.invoke(new Bean(), new Object[] { 1, 2 });
+    assertEquals(Arrays.asList("before", "add", "otherBefore", "add"), events);
+  }
+
+  @Test(expected = InvokerCreateException.class)
+  public void testIllegalHook() throws Exception {
+    InvocationHook.before(TestInvocationHook.class.getDeclaredMethod("enter", Object.class, Object[].class));
+  }
+
+  public static void before(Object obj, Object[] args) {
+    events.add("before");
+  }
+
+  public static void otherBefore(Object obj, Object[] args) {
+    events.add("otherBefore");
+  }
+
+  public static Object after(Object obj, Object[] args, Object result) {
+    events.add("after:" + result);
+    return (Integer) result + 1;
+  }
+
+  public static Object enter(Object obj, Object[] args) {
+    events.add("enter");
+    return "exit:";
+  }
+
+  public static void exit(Object context, Throwable ex) {
+    events.add(context + (ex == null ? "null" : ex.getMessage()));
+  }
+
+  public static class Bean {
+
+    public int add(int a, int b) {
+      events.add("add");
+      return a + b;
+    }
+
+    public void error() {
+      throw new IllegalStateException("error");
+    }
+  }
+}
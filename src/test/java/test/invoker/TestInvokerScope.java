@@ -0,0 +1,161 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import org.junit.Test;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import cn.taketoday.invoker.InvokerCreateException;
+import cn.taketoday.invoker.InvokerScope;
+import cn.taketoday.invoker.MethodInvoker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author TODAY <br>
+ *         2020-08-25 21:02
+ */
+public class TestInvokerScope {
+
+  @Test
+  public void testScope() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("hello", String.class);
+    final InvokerScope scope = new InvokerScope(Bean.class.getClassLoader());
+
+    final MethodInvoker invoker = scope.create(method);
+    assertEquals("hello TODAY", invoker.invoke(new Bean(), new Object[] { "TODAY" }));
+    try {
+      // not defined in target class loader
+      Class.forName(invoker.getClass().getName(), false, Bean.class.getClassLoader());
+      fail("ClassNotFoundException expected");
+    }
+    catch (ClassNotFoundException ignored) {}
+
+    assertSame(invoker.getClass(), scope.create(method).getClass());
+    assertEquals(1, scope.getClassCount());
+
+    scope.release();
+    assertTrue(scope.isReleased());
+    // created invokers keep working
+    assertEquals("hello TODAY", invoker.invoke(new Bean(), new Object[] { "TODAY" }));
+    try {
+      scope.create(method);
+      fail("IllegalStateException expected");
+    }
+    catch (IllegalStateException ignored) {}
+  }
+
+  @Test
+  public void testSharedScope() {
+    final ClassLoader classLoader = Bean.class.getClassLoader();
+    final InvokerScope scope = InvokerScope.of(classLoader);
+    assertSame(scope, InvokerScope.of(classLoader));
+
+    InvokerScope.release(classLoader);
+    assertTrue(scope.isReleased());
+    assertNotSame(scope, InvokerScope.of(classLoader));
+    InvokerScope.release(classLoader);
+  }
+
+  @Test
+  public void testTargetClassVisibility() throws Exception {
+    final Method method = Bean.class.getDeclaredMethod("hello", String.class);
+
+    // target class loader is an ancestor of the parent
+    try (URLClassLoader child = new URLClassLoader(new URL[0], Bean.class.getClassLoader())) {
+      final InvokerScope scope = new InvokerScope(child);
+      assertEquals("hello TODAY", scope.create(method).invoke(new Bean(), new Object[] { "TODAY" }));
+      scope.release();
+    }
+
+    // unrelated parent
+    try (URLClassLoader unrelated = new URLClassLoader(new URL[0], null)) {
+      final InvokerScope scope = new InvokerScope(unrelated);
+      try {
+        scope.create(method);
+        fail("InvokerCreateException expected");
+      }
+      catch (InvokerCreateException e) {
+        assertTrue(e.getMessage().contains("is not visible from scope class loader"));
+      }
+      assertEquals(0, scope.getClassCount());
+      scope.release();
+    }
+  }
+
+  @Test
+  public void testUnloading() throws Exception {
+    final int cycles = 10;
+    final Method method = Bean.class.getDeclaredMethod("hello", String.class);
+    final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    final long unloaded = classLoading.getUnloadedClassCount();
+
+    final List<WeakReference<Class<?>>> classes = new ArrayList<>();
+    for (int i = 0; i < cycles; i++) {
+      classes.add(createAndRelease(method));
+    }
+
+    for (int i = 0; i < 20 && !allCleared(classes); i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    for (final WeakReference<Class<?>> ref : classes) {
+      assertNull("generated class should be unloaded", ref.get());
+    }
+    assertTrue(classLoading.getUnloadedClassCount() - unloaded >= cycles);
+  }
+
+  static WeakReference<Class<?>> createAndRelease(Method method) {
+    final InvokerScope scope = new InvokerScope(Bean.class.getClassLoader());
+    final MethodInvoker invoker = scope.create(method);
+    assertEquals("hello TODAY", invoker.invoke(new Bean(), new Object[] { "TODAY" }));
+    scope.release();
+    return new WeakReference<>(invoker.getClass());
+  }
+
+  static boolean allCleared(List<WeakReference<Class<?>>> classes) {
+    for (final WeakReference<Class<?>> ref : classes) {
+      if (ref.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static class Bean {
+
+    public String hello(String name) {
+      return "hello " + name;
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import cn.taketoday.invoker.InvokerCreateException;
+import cn.taketoday.invoker.MethodInvoker;
+import cn.taketoday.invoker.MethodReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author TODAY <br>
+ *         2020-09-06 16:30
+ */
+public class TestMethodReference {
+
+  @Test
+  public void testCreate() throws Exception {
+    final Bean bean = new Bean();
+
+    final MethodInvoker setName = MethodInvoker.create(Bean::setName);
+    assertNull(setName.invoke(bean, new Object[] { "TODAY" }));
+
+    final MethodInvoker getName = MethodInvoker.create(Bean::getName);
+    assertEquals("TODAY", getName.invoke(bean, null));
+
+    assertEquals(3, MethodInvoker.create(Bean::sum).invoke(null, new Object[] { 1, 2 }));
+    assertEquals("static", MethodInvoker.create(Bean::create).invoke(null, null));
+    // inherited and interface methods
+    assertEquals("TODAY", MethodInvoker.create(SubBean::getName).invoke(bean, null));
+    assertEquals("TODAY", MethodInvoker.create(Named::getName).invoke(bean, null));
+  }
+
+  @Test
+  public void testGetMethod() throws Exception {
+    final MethodReference.Function<Bean, String> reference = Bean::getName;
+    final Method method = reference.getMethod();
+
+    assertEquals(Bean.class.getDeclaredMethod("getName"), method);
+    assertSame(method, reference.getMethod());
+  }
+
+  @Test(expected = InvokerCreateException.class)
+  public void testLambda() {
+    final MethodReference.Function<Bean, String> lambda = bean -> bean.getName();
+    lambda.getMethod();
+  }
+
+  @Test
+  public void testCreateSetter() throws Exception {
+    final Bean bean = new Bean();
+
+    assertNull(MethodInvoker.createSetter(Bean::getName).invoke(bean, new Object[] { "TODAY" }));
+    assertEquals("TODAY", bean.getName());
+
+    MethodInvoker.createSetter(Bean::isActive).invoke(bean, new Object[] { true });
+    assertTrue(bean.isActive());
+
+    // setter declared in super class
+    MethodInvoker.createSetter(SubBean::getAge).invoke(bean, new Object[] { 18 });
+    assertEquals(18, bean.age);
+  }
+
+  @Test(expected = InvokerCreateException.class)
+  public void testNoSetter() {
+    // interface has no setter
+    MethodInvoker.createSetter(Named::getName);
+  }
+
+  public interface Named {
+    String getName();
+  }
+
+  public static class Bean implements Named {
+
+    private String name;
+    private boolean active;
+    int age;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public boolean isActive() {
+      return active;
+    }
+
+    public void setActive(boolean active) {
+      this.active = active;
+    }
+
+    public void setAge(int age) {
+      this.age = age;
+    }
+
+    public static int sum(int a, int b) {
+      return a + b;
+    }
+
+    public static String create() {
+      return "static";
+    }
+  }
+
+  public static class SubBean extends Bean {
+
+    public int getAge() {
+      return age;
+    }
+  }
+}
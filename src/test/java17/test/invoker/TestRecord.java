@@ -0,0 +1,72 @@
+/**
+ * Original Author -> 杨海健 (taketoday@foxmail.com) https://taketoday.cn
+ * Copyright © TODAY & 2017 - 2020 All Rights Reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see [http://www.gnu.org/licenses/]
+ */
+package test.invoker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import cn.taketoday.invoker.MethodInvoker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Record tests, compiled with release 17
+ *
+ * @author TODAY <br>
+ *         2020-09-06 17:10
+ */
+public class TestRecord {
+
+  @Test
+  public void testCreateRecordComponents() {
+    final Map<String, MethodInvoker> invokers = MethodInvoker.createRecordComponents(Point.class);
+    assertEquals(Arrays.asList("x", "y", "name"), new ArrayList<>(invokers.keySet()));
+
+    final Point point = new Point(1, 2, "TODAY");
+    assertEquals(1, invokers.get("x").invoke(point, null));
+    assertEquals(2, invokers.get("y").invoke(point, null));
+    assertEquals("TODAY", invokers.get("name").invoke(point, null));
+  }
+
+  @Test
+  public void testAccessorReference() {
+    assertEquals("TODAY", MethodInvoker.create(Point::name).invoke(new Point(1, 2, "TODAY"), null));
+  }
+
+  @Test
+  public void testNotRecord() {
+    try {
+      MethodInvoker.createRecordComponents(Bean.class);
+      fail("IllegalArgumentException expected");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals(Bean.class.getName() + " is not a record class", e.getMessage());
+    }
+  }
+
+  public record Point(int x, int y, String name) {}
+
+  public static class Bean {}
+}